@@ -0,0 +1,72 @@
+#!/bin/bash
+
+# Measures read throughput on its own and while a write benchmark runs concurrently, and reports
+# JDBC connection checkouts per Hikari pool (hikaricp_connections_usage_seconds_count by pool)
+# for each phase. Run it with and without docker-compose.replica.yaml to compare.
+# Usage: ./benchmark-read-replica.sh [reads] [concurrency] [writes]
+# Example: ./benchmark-read-replica.sh 10000 32 5000
+
+set -e
+
+READS=${1:-5000}
+CONCURRENCY=${2:-32}
+WRITES=${3:-2000}
+HOST=${HOST:-localhost}
+PORT=${PORT:-8080}
+BASE_URL="http://${HOST}:${PORT}"
+RESULTS_DIR="./load-test-results"
+
+mkdir -p "$RESULTS_DIR"
+
+# Prints "pool=checkouts ..." for every Hikari pool
+pool_checkouts() {
+    curl -s "${BASE_URL}/actuator/prometheus" | awk '
+        /^hikaricp_connections_usage_seconds_count/ {
+            match($0, /pool="[^"]*"/)
+            count[substr($0, RSTART + 6, RLENGTH - 7)] += $2
+        }
+        END { for (pool in count) printf "%s=%d ", pool, count[pool] }'
+}
+
+now_ms() {
+    date +%s%3N
+}
+
+# Database-bound list pages (not served from the planets cache); prints one status code per line
+read_phase() {
+    seq 1 "$READS" | awk -v base="$BASE_URL" '{ print base "/v1/planets?page=" $1 % 20 "&size=20" }' \
+        | xargs -P "$CONCURRENCY" -n 1 curl -s -o /dev/null -w '%{http_code}\n'
+}
+
+report() {
+    local phase=$1 started=$2 finished=$3 statuses=$4 before=$5 after=$6
+    awk -v phase="$phase" -v ms="$((finished - started))" -v before="$before" -v after="$after" '
+        { total++; if ($1 == 200) ok++; else if ($1 == 429) shed++ }
+        END {
+            n = split(before, b, " "); for (i = 1; i <= n; i++) { split(b[i], kv, "="); start[kv[1]] = kv[2] }
+            n = split(after, a, " ");
+            for (i = 1; i <= n; i++) { split(a[i], kv, "="); pools = pools sprintf(" %s=%d", kv[1], kv[2] - start[kv[1]]) }
+            printf "%-16s reads=%d ok=%d shed=%d throughput=%.1f ok/s checkouts:%s\n",
+                phase, total, ok, shed, ok * 1000 / ms, pools
+        }' "$statuses" | tee -a "$RESULTS_DIR/benchmark-read-replica.txt"
+}
+
+STATUSES=$(mktemp)
+trap 'rm -f "$STATUSES"' EXIT
+echo "Read benchmark against ${BASE_URL}: ${READS} reads, ${CONCURRENCY} clients"
+
+before=$(pool_checkouts)
+started=$(now_ms)
+read_phase > "$STATUSES"
+finished=$(now_ms)
+report "reads" "$started" "$finished" "$STATUSES" "$before" "$(pool_checkouts)"
+
+./benchmark-writes.sh "$WRITES" "$CONCURRENCY" > /dev/null &
+WRITER=$!
+sleep 1
+before=$(pool_checkouts)
+started=$(now_ms)
+read_phase > "$STATUSES"
+finished=$(now_ms)
+report "reads+writes" "$started" "$finished" "$STATUSES" "$before" "$(pool_checkouts)"
+wait "$WRITER"
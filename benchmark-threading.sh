@@ -0,0 +1,66 @@
+#!/bin/bash
+
+# Compares platform-thread and virtual-thread request execution under the same container limits
+# (2 CPU / 1 GB, from docker-compose.yaml). Each mode gets a fresh app container, a warm-up run,
+# then a measured run with ./load-test.sh.
+# Usage: ./benchmark-threading.sh [rps] [duration] [warmup]
+# Example: ./benchmark-threading.sh 200 120 30
+
+set -e
+
+RPS=${1:-100}
+DURATION=${2:-60}
+WARMUP=${3:-20}
+HOST=${HOST:-localhost}
+PORT=${PORT:-8080}
+RESULTS_DIR="./load-test-results"
+
+mkdir -p "$RESULTS_DIR"
+
+wait_until_ready() {
+    for _ in $(seq 1 60); do
+        if curl -sf "http://${HOST}:${PORT}/actuator/health/readiness" > /dev/null; then
+            return 0
+        fi
+        sleep 2
+    done
+    echo "Application did not become ready" >&2
+    exit 1
+}
+
+summarize() {
+    # CSV columns: timestamp,endpoint,method,elapsed_ms,status_code,success
+    local mode=$1 csv=$2 stats latency
+    stats=$(awk -F',' -v duration="$DURATION" 'NR > 1 { n++; if ($6 == "True") ok++ }
+        END { printf "requests=%d success=%d throughput=%.1f req/s", n, ok, ok / duration }' "$csv")
+    latency=$(awk -F',' 'NR > 1 { print $4 }' "$csv" | sort -n | awk '{ a[NR] = $1 }
+        END { printf "p50=%dms p99=%dms max=%dms", a[int(NR * 0.50)], a[int(NR * 0.99)], a[NR] }')
+    printf "%-9s %s %s\n" "$mode" "$stats" "$latency"
+}
+
+run_mode() {
+    local mode=$1
+    shift
+    echo "================================"
+    echo "Mode: ${mode}"
+    echo "================================"
+    docker compose "$@" up -d --build --force-recreate app
+    wait_until_ready
+
+    ./load-test.sh "$RPS" "$WARMUP" > /dev/null
+    ./load-test.sh "$RPS" "$DURATION"
+    cp "$RESULTS_DIR/load-test-results.csv" "$RESULTS_DIR/threading-${mode}.csv"
+}
+
+run_mode platform -f docker-compose.yaml
+run_mode virtual -f docker-compose.yaml -f docker-compose.virtual-threads.yaml
+
+# Leave the stack in its default mode
+docker compose -f docker-compose.yaml up -d --force-recreate app > /dev/null
+
+echo ""
+echo "================================"
+echo "Platform vs virtual threads (${RPS} req/s, ${DURATION}s)"
+echo "================================"
+summarize platform "$RESULTS_DIR/threading-platform.csv"
+summarize virtual "$RESULTS_DIR/threading-virtual.csv"
@@ -0,0 +1,88 @@
+#!/bin/bash
+
+# Measures the write path: creates N planets and then deletes them with C concurrent clients,
+# and reports throughput per phase plus the mean time a request held a JDBC connection
+# (hikaricp_connections_usage_seconds), taken as deltas of the Prometheus counters around each
+# phase. Each result line is tagged with LABEL (default: the current commit), so runs against
+# two builds can be compared side by side afterwards.
+# Usage: LABEL=<build> ./benchmark-writes.sh [planets] [concurrency]
+#        ./benchmark-writes.sh compare <before-label> <after-label>
+# Example: LABEL=before ./benchmark-writes.sh 5000 32
+
+set -e
+
+RESULTS_DIR="./load-test-results"
+RESULTS_FILE="$RESULTS_DIR/benchmark-writes.txt"
+
+# Prints the last run of each label per phase, and the change from the first label to the second
+if [ "$1" = "compare" ]; then
+    awk -v before="$2" -v after="$3" '
+        $1 == before { b[$2] = $0; bt[$2] = $4; bh[$2] = $5 }
+        $1 == after { a[$2] = $0; at[$2] = $4; ah[$2] = $5 }
+        END {
+            for (phase in b) {
+                if (!(phase in a)) continue
+                sub("throughput=", "", bt[phase]); sub("throughput=", "", at[phase])
+                sub("connection-hold=", "", bh[phase]); sub("connection-hold=", "", ah[phase])
+                print b[phase]; print a[phase]
+                printf "%s: throughput %+.1f%%, connection hold %+.1f%%\n\n", phase,
+                    (at[phase] + 0) * 100 / (bt[phase] + 0) - 100,
+                    (ah[phase] + 0) * 100 / (bh[phase] + 0) - 100
+            }
+        }' "$RESULTS_FILE"
+    exit 0
+fi
+
+PLANETS=${1:-2000}
+CONCURRENCY=${2:-16}
+HOST=${HOST:-localhost}
+PORT=${PORT:-8080}
+BASE_URL="http://${HOST}:${PORT}"
+LABEL=${LABEL:-$(git rev-parse --short HEAD 2>/dev/null || echo run)}
+IDS_FILE=$(mktemp)
+trap 'rm -f "$IDS_FILE"' EXIT
+
+mkdir -p "$RESULTS_DIR"
+
+# Prints "<sum> <count>" of the connection usage summary
+connection_usage() {
+    curl -s "${BASE_URL}/actuator/prometheus" | awk '
+        /^hikaricp_connections_usage_seconds_sum/ { sum += $2 }
+        /^hikaricp_connections_usage_seconds_count/ { count += $2 }
+        END { printf "%f %d", sum, count }'
+}
+
+now_ms() {
+    date +%s%3N
+}
+
+report() {
+    local phase=$1 requests=$2 started=$3 finished=$4 before=$5 after=$6
+    awk -v label="$LABEL" -v phase="$phase" -v n="$requests" -v ms="$((finished - started))" \
+        -v before="$before" -v after="$after" 'BEGIN {
+            split(before, b, " "); split(after, a, " ")
+            held = a[2] > b[2] ? (a[1] - b[1]) * 1000 / (a[2] - b[2]) : 0
+            printf "%s %s requests=%d throughput=%.1f connection-hold=%.2f checkouts=%d\n",
+                label, phase, n, n * 1000 / ms, held, a[2] - b[2]
+        }' | tee -a "$RESULTS_FILE"
+}
+
+RUN_ID=$(date +%s)
+echo "Write benchmark '${LABEL}' against ${BASE_URL}: ${PLANETS} planets, ${CONCURRENCY} clients"
+
+before=$(connection_usage)
+started=$(now_ms)
+seq 1 "$PLANETS" | xargs -P "$CONCURRENCY" -I{} curl -s -w '\n' \
+    -X POST "${BASE_URL}/v1/planets" -H 'Content-Type: application/json' \
+    -d "{\"name\":\"Bench-${RUN_ID}-{}\",\"terrain\":\"desert\",\"climate\":\"arid\"}" \
+    | grep -o '^{"id":"[^"]*"' | cut -d'"' -f4 > "$IDS_FILE"
+finished=$(now_ms)
+report create "$PLANETS" "$started" "$finished" "$before" "$(connection_usage)"
+
+DELETES=$(wc -l < "$IDS_FILE")
+before=$(connection_usage)
+started=$(now_ms)
+xargs -P "$CONCURRENCY" -I{} curl -s -o /dev/null -X DELETE "${BASE_URL}/v1/planets/{}" \
+    < "$IDS_FILE"
+finished=$(now_ms)
+report delete "$DELETES" "$started" "$finished" "$before" "$(connection_usage)"
@@ -35,6 +35,26 @@ else
     echo "✗ No HTTP metrics found"
 fi
 
+echo ""
+echo "Looking for layer timing metrics..."
+LAYER_COUNT=$(curl -s http://localhost:8080/actuator/prometheus | grep -c "planets_layer_calls_seconds_count" || echo "0")
+if [ "$LAYER_COUNT" -gt 0 ]; then
+    echo "✓ Found $LAYER_COUNT layer timer(s)"
+    curl -s http://localhost:8080/actuator/prometheus | grep "planets_layer_calls_seconds_count" | head -10
+else
+    echo "✗ No layer timing metrics found (they appear after the first request)"
+fi
+
+echo ""
+echo "Looking for cache and index metrics..."
+CACHE_COUNT=$(curl -s http://localhost:8080/actuator/prometheus | grep -cE "^planets_(cache|index)_" || echo "0")
+if [ "$CACHE_COUNT" -gt 0 ]; then
+    echo "✓ Found $CACHE_COUNT cache/index metric(s)"
+    curl -s http://localhost:8080/actuator/prometheus | grep -E "^planets_(cache_requests|cache_invalidations|index_lookup_seconds_count|index_bulk_lookups)" | head -10
+else
+    echo "✗ No cache/index metrics found"
+fi
+
 echo ""
 echo "Looking for JVM metrics..."
 JVM_COUNT=$(curl -s http://localhost:8080/actuator/prometheus | grep -c "jvm_" || echo "0")
@@ -0,0 +1,14 @@
+-- Connect to the application database
+\c star-wars-planets-db
+
+-- Trigram matching for typo-tolerant name search
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+-- Case-insensitive prefix search: lower(name) LIKE 'ta%' can seek on this index regardless of
+-- the database collation
+CREATE INDEX IF NOT EXISTS idx_planets_lower_name_pattern
+    ON planets (lower(name) text_pattern_ops);
+
+-- Fuzzy search: similarity operator (%) and LIKE on lower(name)
+CREATE INDEX IF NOT EXISTS idx_planets_lower_name_trgm
+    ON planets USING gin (lower(name) gin_trgm_ops);
@@ -69,6 +69,8 @@ def get_test_endpoints(base_url):
         {'url': f'{base_url}/v1/planets?page=1&size=50', 'method': 'GET', 'name': 'GET /planets (page 1)'},
         {'url': f'{base_url}/v1/planets/search?name=Tatooine', 'method': 'GET', 'name': 'GET /search (Tatooine)'},
         {'url': f'{base_url}/v1/planets/search?name=Alderaan', 'method': 'GET', 'name': 'GET /search (Alderaan)'},
+        {'url': f'{base_url}/v1/planets/search?prefix=ta&limit=10', 'method': 'GET', 'name': 'GET /search (prefix ta)'},
+        {'url': f'{base_url}/v1/planets/search?q=tatoine&limit=10', 'method': 'GET', 'name': 'GET /search (fuzzy tatoine)'},
         {'url': f'{base_url}/v1/planets', 'method': 'POST', 'data': {
             'name': f'TestPlanet{int(time.time() * 1000) % 100000}',
             'terrain': random.choice(['Desert', 'Forest', 'Ocean', 'Mountain']),
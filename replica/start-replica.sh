@@ -0,0 +1,18 @@
+#!/bin/sh
+
+# Clones the primary into an empty data directory and starts it as a hot standby that streams
+# WAL from the primary (pg_basebackup -R writes standby.signal and primary_conninfo).
+
+set -e
+
+if [ ! -s "$PGDATA/PG_VERSION" ]; then
+    until PGPASSWORD="$POSTGRES_PASSWORD" pg_basebackup -h postgres -U "$POSTGRES_USER" \
+        -D "$PGDATA" -R -X stream -c fast; do
+        echo "Waiting for the primary..."
+        rm -rf "${PGDATA:?}"/*
+        sleep 2
+    done
+    chmod 0700 "$PGDATA"
+fi
+
+exec postgres
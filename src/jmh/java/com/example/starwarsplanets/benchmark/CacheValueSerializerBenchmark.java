@@ -0,0 +1,52 @@
+package com.example.starwarsplanets.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.data.redis.serializer.JacksonJsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import com.example.starwarsplanets.config.RedisConfig;
+import com.example.starwarsplanets.dto.ResponsePlanetDTO;
+
+/**
+ * Encoding and decoding of a planet entry by the Redis cache tier's value serializer
+ * ({@code binary}), against the generic JSON serializer it replaced ({@code json}). The payload
+ * size of each is printed at setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CacheValueSerializerBenchmark {
+
+  @Param({"binary", "json"})
+  private String format;
+
+  private RedisSerializer<Object> serializer;
+  private ResponsePlanetDTO planet;
+  private byte[] encoded;
+
+  @Setup
+  public void setUp() {
+    serializer = "json".equals(format) ? new JacksonJsonRedisSerializer<>(Object.class)
+        : RedisConfig.cacheValueSerializer();
+    planet = Fixtures.responsePlanet(42);
+    encoded = serializer.serialize(planet);
+    System.out.printf("%n%s planet cache entry: %d bytes%n", format, encoded.length);
+  }
+
+  @Benchmark
+  public byte[] serialize() {
+    return serializer.serialize(planet);
+  }
+
+  @Benchmark
+  public Object deserialize() {
+    return serializer.deserialize(encoded);
+  }
+}
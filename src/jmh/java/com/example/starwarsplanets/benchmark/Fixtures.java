@@ -0,0 +1,67 @@
+package com.example.starwarsplanets.benchmark;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import com.example.starwarsplanets.dto.ResponsePlanetDTO;
+import com.example.starwarsplanets.dto.SwapiPlanetDTO;
+import com.example.starwarsplanets.dto.SwapiPlanetsResponseDTO;
+import com.example.starwarsplanets.entity.Planet;
+
+/** Deterministic test data shaped like production rows and SWAPI responses. */
+final class Fixtures {
+
+  private static final String[] TERRAINS =
+      {"desert", "grasslands, mountains", "jungle, rainforests", "tundra, ice caves"};
+  private static final String[] CLIMATES = {"arid", "temperate", "tropical", "frozen"};
+
+  private Fixtures() {}
+
+  static Planet planet(int i) {
+    LocalDateTime now = LocalDateTime.of(2025, 1, 1, 12, 0).plusSeconds(i);
+    Planet planet = new Planet("Planet-" + i, TERRAINS[i % TERRAINS.length],
+        CLIMATES[i % CLIMATES.length]);
+    planet.setId(new UUID(0x5741525350414345L, i));
+    planet.setMovieApppearances(String.valueOf(i % 7));
+    planet.setCreatedAt(now);
+    planet.setUpdatedAt(now);
+    return planet;
+  }
+
+  static List<Planet> planets(int count) {
+    List<Planet> planets = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      planets.add(planet(i));
+    }
+    return planets;
+  }
+
+  static ResponsePlanetDTO responsePlanet(int i) {
+    Planet planet = planet(i);
+    return new ResponsePlanetDTO(planet.getId().toString(), planet.getName(), planet.getTerrain(),
+        planet.getClimate(), planet.getMovieApppearances(), planet.getCreatedAt(),
+        planet.getUpdatedAt());
+  }
+
+  static List<ResponsePlanetDTO> responsePlanets(int count) {
+    List<ResponsePlanetDTO> planets = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      planets.add(responsePlanet(i));
+    }
+    return planets;
+  }
+
+  /** One SWAPI response page holding {@code count} planets, each with its film URLs. */
+  static SwapiPlanetsResponseDTO swapiResponse(int count) {
+    List<SwapiPlanetDTO> results = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      List<String> films = new ArrayList<>(i % 7);
+      for (int f = 0; f < i % 7; f++) {
+        films.add("https://swapi.dev/api/films/" + (f + 1) + "/");
+      }
+      results.add(new SwapiPlanetDTO("Planet-" + i, films));
+    }
+    return new SwapiPlanetsResponseDTO((long) count, null, null, results);
+  }
+}
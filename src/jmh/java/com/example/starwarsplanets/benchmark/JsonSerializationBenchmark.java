@@ -0,0 +1,55 @@
+package com.example.starwarsplanets.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import com.example.starwarsplanets.dto.PagedResponsePlanetDTO;
+import com.example.starwarsplanets.dto.ResponsePlanetDTO;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+
+/** Response body serialization of the single-planet and paged endpoints. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class JsonSerializationBenchmark {
+
+  @Param({"20", "100"})
+  private int pageSize;
+
+  private final ObjectMapper objectMapper = JsonMapper.builder().build();
+  private ResponsePlanetDTO planet;
+  private PagedResponsePlanetDTO page;
+  private byte[] planetJson;
+
+  @Setup
+  public void setUp() {
+    planet = Fixtures.responsePlanet(42);
+    List<ResponsePlanetDTO> content = Fixtures.responsePlanets(pageSize);
+    page = new PagedResponsePlanetDTO(content, 10_000, 10_000 / pageSize, pageSize, 0, true,
+        false);
+    planetJson = objectMapper.writeValueAsBytes(planet);
+  }
+
+  @Benchmark
+  public byte[] writeResponsePlanet() {
+    return objectMapper.writeValueAsBytes(planet);
+  }
+
+  @Benchmark
+  public byte[] writePagedResponse() {
+    return objectMapper.writeValueAsBytes(page);
+  }
+
+  @Benchmark
+  public ResponsePlanetDTO readResponsePlanet() {
+    return objectMapper.readValue(planetJson, ResponsePlanetDTO.class);
+  }
+}
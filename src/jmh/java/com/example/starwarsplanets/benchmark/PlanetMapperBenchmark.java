@@ -0,0 +1,46 @@
+package com.example.starwarsplanets.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import com.example.starwarsplanets.dto.ResponsePlanetDTO;
+import com.example.starwarsplanets.entity.Planet;
+import com.example.starwarsplanets.mapper.PlanetMapper;
+import com.example.starwarsplanets.mapper.PlanetMapperImpl;
+
+/** Entity to DTO mapping, run once per row on every read. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PlanetMapperBenchmark {
+
+  @Param({"20", "100"})
+  private int pageSize;
+
+  private final PlanetMapper planetMapper = new PlanetMapperImpl();
+  private Planet planet;
+  private List<Planet> page;
+
+  @Setup
+  public void setUp() {
+    planet = Fixtures.planet(42);
+    page = Fixtures.planets(pageSize);
+  }
+
+  @Benchmark
+  public ResponsePlanetDTO toDTO() {
+    return planetMapper.toDTO(planet);
+  }
+
+  @Benchmark
+  public List<ResponsePlanetDTO> toDTOList() {
+    return planetMapper.toDTOList(page);
+  }
+}
@@ -0,0 +1,51 @@
+package com.example.starwarsplanets.benchmark;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import com.example.starwarsplanets.dto.SwapiPlanetsResponseDTO;
+import com.example.starwarsplanets.service.SwapiService;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * Parsing a large SWAPI planets response and building the movie-appearance index from it, i.e.
+ * {@link SwapiService#indexPlanetsMovieAppearances()} without the network.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SwapiIndexingBenchmark {
+
+  @Param({"1000", "10000"})
+  private int planets;
+
+  private final ObjectMapper objectMapper = JsonMapper.builder().build();
+  private byte[] responseJson;
+  private SwapiPlanetsResponseDTO response;
+
+  @Setup
+  public void setUp() {
+    response = Fixtures.swapiResponse(planets);
+    responseJson = objectMapper.writeValueAsBytes(response);
+  }
+
+  @Benchmark
+  public Map<String, String> parseAndIndex() {
+    SwapiPlanetsResponseDTO parsed =
+        objectMapper.readValue(responseJson, SwapiPlanetsResponseDTO.class);
+    return SwapiService.indexPlanetsMovieAppearances(parsed.results());
+  }
+
+  @Benchmark
+  public Map<String, String> index() {
+    return SwapiService.indexPlanetsMovieAppearances(response.results());
+  }
+}
@@ -0,0 +1,249 @@
+package com.example.starwarsplanets.loadtest;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongFunction;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+/**
+ * Open-model load generator: requests are started on a fixed schedule (one every 1/rps seconds,
+ * cycling through the same endpoint mix as {@code load-test.sh}), each on its own virtual thread,
+ * whether or not earlier requests have completed. Latency is measured from the scheduled start,
+ * not from when the request was actually sent, so a stalled server is charged for the whole time
+ * requests were queued behind it (no coordinated omission). The time from actual send to response
+ * is recorded separately as service time.
+ *
+ * <p>Writes every request to a CSV with the columns of {@code load-test-results.csv}, with
+ * {@code elapsed_ms} in fractional milliseconds, the HdrHistogram percentile distribution of
+ * response times, and prints a percentile summary per endpoint.
+ *
+ * <pre>
+ * ./gradlew loadTest --args='--rps 200 --duration 60 --base-url http://localhost:8080'
+ * </pre>
+ */
+public final class LoadGenerator {
+
+  private static final long HIGHEST_TRACKABLE_NANOS = TimeUnit.MINUTES.toNanos(2);
+  private static final int SIGNIFICANT_DIGITS = 3;
+  private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+  private record Endpoint(String name, String method, String path, LongFunction<String> body) {
+
+    static Endpoint get(String name, String path) {
+      return new Endpoint(name, "GET", path, null);
+    }
+  }
+
+  private record Stats(Histogram responseTime, Histogram serviceTime, AtomicLong successes) {
+
+    static Stats create() {
+      return new Stats(new ConcurrentHistogram(HIGHEST_TRACKABLE_NANOS, SIGNIFICANT_DIGITS),
+          new ConcurrentHistogram(HIGHEST_TRACKABLE_NANOS, SIGNIFICANT_DIGITS), new AtomicLong());
+    }
+  }
+
+  private static final List<Endpoint> ENDPOINTS = List.of(
+      Endpoint.get("GET /planets", "/v1/planets"),
+      Endpoint.get("GET /planets (page 0)", "/v1/planets?page=0&size=20"),
+      Endpoint.get("GET /planets (page 1)", "/v1/planets?page=1&size=50"),
+      Endpoint.get("GET /search (Tatooine)", "/v1/planets/search?name=Tatooine"),
+      Endpoint.get("GET /search (Alderaan)", "/v1/planets/search?name=Alderaan"),
+      Endpoint.get("GET /search (prefix ta)", "/v1/planets/search?prefix=ta&limit=10"),
+      Endpoint.get("GET /search (fuzzy tatoine)", "/v1/planets/search?q=tatoine&limit=10"),
+      new Endpoint("POST /planets", "POST", "/v1/planets",
+          sequence -> "{\"name\":\"LoadPlanet-%d-%d\",\"terrain\":\"%s\",\"climate\":\"%s\"}"
+              .formatted(ProcessHandle.current().pid(), sequence,
+                  List.of("Desert", "Forest", "Ocean", "Mountain").get((int) (sequence % 4)),
+                  List.of("Arid", "Humid", "Cold", "Temperate").get((int) (sequence % 4)))));
+
+  private final String baseUrl;
+  private final int rps;
+  private final Duration duration;
+  private final Path resultsDir;
+  private final HttpClient client;
+  private final Map<String, Stats> stats = new LinkedHashMap<>();
+  private final Stats overall = Stats.create();
+  private BufferedWriter csv;
+
+  private LoadGenerator(String baseUrl, int rps, Duration duration, Path resultsDir) {
+    this.baseUrl = baseUrl;
+    this.rps = rps;
+    this.duration = duration;
+    this.resultsDir = resultsDir;
+    this.client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5))
+        .executor(Executors.newVirtualThreadPerTaskExecutor()).build();
+    ENDPOINTS.forEach(endpoint -> stats.put(endpoint.name(), Stats.create()));
+  }
+
+  public static void main(String[] args) throws Exception {
+    Map<String, String> options = parse(args);
+    LoadGenerator generator = new LoadGenerator(
+        options.getOrDefault("base-url", "http://localhost:8080"),
+        Integer.parseInt(options.getOrDefault("rps", "10")),
+        Duration.ofSeconds(Long.parseLong(options.getOrDefault("duration", "60"))),
+        Path.of(options.getOrDefault("results-dir", "load-test-results")));
+    generator.run();
+  }
+
+  private static Map<String, String> parse(String[] args) {
+    Map<String, String> options = new HashMap<>();
+    for (int i = 0; i + 1 < args.length; i += 2) {
+      if (!args[i].startsWith("--")) {
+        throw new IllegalArgumentException("Expected --option value, got " + args[i]);
+      }
+      options.put(args[i].substring(2), args[i + 1]);
+    }
+    return options;
+  }
+
+  private void run() throws IOException, InterruptedException {
+    Files.createDirectories(resultsDir);
+    long total = rps * duration.toSeconds();
+    long intervalNanos = TimeUnit.SECONDS.toNanos(1) / rps;
+    System.out.printf("Open-model load: %d req/s for %ds against %s (%d requests)%n", rps,
+        duration.toSeconds(), baseUrl, total);
+
+    try (BufferedWriter writer = Files.newBufferedWriter(
+        resultsDir.resolve("load-test-results.csv"), StandardCharsets.UTF_8)) {
+      csv = writer;
+      csv.write("timestamp,endpoint,method,elapsed_ms,status_code,success\n");
+
+      long start = System.nanoTime();
+      try (ExecutorService requests = Executors.newVirtualThreadPerTaskExecutor()) {
+        for (long i = 0; i < total; i++) {
+          long scheduledAt = start + i * intervalNanos;
+          waitUntil(scheduledAt);
+          Endpoint endpoint = ENDPOINTS.get((int) (i % ENDPOINTS.size()));
+          long sequence = i;
+          requests.execute(() -> send(endpoint, sequence, scheduledAt));
+        }
+        // Closing the executor waits for the requests still in flight.
+      }
+      long elapsedNanos = System.nanoTime() - start;
+      report(System.out, elapsedNanos);
+    }
+
+    try (PrintStream hgrm = new PrintStream(
+        Files.newOutputStream(resultsDir.resolve("load-test-latency.hgrm")), true,
+        StandardCharsets.UTF_8)) {
+      // Values in milliseconds, for plotting with HdrHistogram's plotter.
+      overall.responseTime().outputPercentileDistribution(hgrm, 1_000_000.0);
+    }
+    System.out.println("CSV: " + resultsDir.resolve("load-test-results.csv"));
+    System.out.println("Histogram: " + resultsDir.resolve("load-test-latency.hgrm"));
+  }
+
+  private static void waitUntil(long deadline) {
+    long remaining;
+    while ((remaining = deadline - System.nanoTime()) > 0) {
+      LockSupport.parkNanos(remaining);
+    }
+  }
+
+  private void send(Endpoint endpoint, long sequence, long scheduledAt) {
+    HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUrl + endpoint.path()))
+        .timeout(Duration.ofSeconds(30));
+    if (endpoint.body() != null) {
+      request.header("Content-Type", "application/json").method(endpoint.method(),
+          HttpRequest.BodyPublishers.ofString(endpoint.body().apply(sequence)));
+    } else {
+      request.method(endpoint.method(), HttpRequest.BodyPublishers.noBody());
+    }
+
+    long sentAt = System.nanoTime();
+    int status = 0;
+    try {
+      status = client.send(request.build(), HttpResponse.BodyHandlers.discarding()).statusCode();
+    } catch (IOException ex) {
+      // Counted as a failure with status 0, like the Python script.
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    }
+    long finishedAt = System.nanoTime();
+    record(endpoint, scheduledAt, sentAt, finishedAt, status);
+  }
+
+  private void record(Endpoint endpoint, long scheduledAt, long sentAt, long finishedAt,
+      int status) {
+    boolean success = status >= 200 && status < 300;
+    long responseNanos = Math.min(finishedAt - scheduledAt, HIGHEST_TRACKABLE_NANOS);
+    long serviceNanos = Math.min(finishedAt - sentAt, HIGHEST_TRACKABLE_NANOS);
+    for (Stats target : List.of(stats.get(endpoint.name()), overall)) {
+      target.responseTime().recordValue(responseNanos);
+      target.serviceTime().recordValue(serviceNanos);
+      if (success) {
+        target.successes().incrementAndGet();
+      }
+    }
+
+    String line = String.format(Locale.ROOT, "%s,%s,%s,%.3f,%d,%s%n", LocalDateTime.now(),
+        endpoint.name(), endpoint.method(), responseNanos / 1e6, status,
+        success ? "True" : "False");
+    synchronized (this) {
+      try {
+        csv.write(line);
+      } catch (IOException ex) {
+        throw new IllegalStateException("Could not write the results CSV", ex);
+      }
+    }
+  }
+
+  private void report(PrintStream out, long elapsedNanos) {
+    long count = overall.responseTime().getTotalCount();
+    out.println("================================");
+    out.println("Load Test Results Summary");
+    out.println("================================");
+    out.printf(Locale.ROOT, "Total Requests: %d (target %d req/s, achieved %.1f req/s)%n", count,
+        rps, count / (elapsedNanos / 1e9));
+    out.printf(Locale.ROOT, "Successful: %d (%.2f%%)%n", overall.successes().get(),
+        count > 0 ? overall.successes().get() * 100.0 / count : 0);
+    out.println();
+    out.println("Response time, from scheduled start (ms):");
+    printHeader(out);
+    stats.forEach((name, endpointStats) -> printRow(out, name, endpointStats.responseTime(),
+        endpointStats.successes().get()));
+    printRow(out, "ALL", overall.responseTime(), overall.successes().get());
+    out.println();
+    out.println("Service time, from actual send (ms):");
+    printHeader(out);
+    printRow(out, "ALL", overall.serviceTime(), overall.successes().get());
+  }
+
+  private static void printHeader(PrintStream out) {
+    out.printf(Locale.ROOT, "  %-28s %7s %7s %9s %9s %9s %9s %9s%n", "endpoint", "count", "ok",
+        "p50", "p90", "p99", "p99.9", "max");
+  }
+
+  private static void printRow(PrintStream out, String name, Histogram histogram,
+      long successes) {
+    StringBuilder row = new StringBuilder(String.format(Locale.ROOT, "  %-28s %7d %7d", name,
+        histogram.getTotalCount(), successes));
+    for (double percentile : PERCENTILES) {
+      row.append(String.format(Locale.ROOT, " %9.2f",
+          histogram.getValueAtPercentile(percentile) / 1e6));
+    }
+    row.append(String.format(Locale.ROOT, " %9.2f", histogram.getMaxValue() / 1e6));
+    out.println(row);
+  }
+}
@@ -6,9 +6,11 @@ import io.swagger.v3.oas.annotations.OpenAPIDefinition;
 import io.swagger.v3.oas.annotations.info.Info;
 import io.swagger.v3.oas.annotations.info.Contact;
 import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
 @EnableCaching
+@EnableScheduling
 @OpenAPIDefinition(info = @Info(title = "Star Wars Planets API", version = "1.0.0",
 		description = "REST API for managing planets from the Star Wars universe",
 		contact = @Contact(name = "API Support",
@@ -0,0 +1,98 @@
+package com.example.starwarsplanets.cache;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+
+/**
+ * Broadcasts local cache invalidations to every node over a Redis channel and applies the ones
+ * received from other nodes. Messages are {@code nodeId|cacheName[|key]}; a message without a key
+ * clears the whole local tier. Other components that keep their own copy of cached data can
+ * {@link #addListener listen} for the invalidations received for a cache.
+ */
+public class CacheInvalidationBus implements MessageListener {
+
+  private static final Logger logger = LoggerFactory.getLogger(CacheInvalidationBus.class);
+  private static final String SEPARATOR = "|";
+
+  private final String nodeId = UUID.randomUUID().toString();
+  private final Map<String, TwoLevelCache> caches = new ConcurrentHashMap<>();
+  private final Map<String, List<Listener>> listeners = new ConcurrentHashMap<>();
+  private final RedisTemplate<String, Object> redisTemplate;
+  private final String channel;
+
+  public CacheInvalidationBus(RedisTemplate<String, Object> redisTemplate, String channel) {
+    this.redisTemplate = redisTemplate;
+    this.channel = channel;
+  }
+
+  void register(TwoLevelCache cache) {
+    caches.put(cache.getName(), cache);
+  }
+
+  /** Called, on the listener container's thread, for invalidations published by other nodes. */
+  public void addListener(String cacheName, Listener listener) {
+    listeners.computeIfAbsent(cacheName, name -> new CopyOnWriteArrayList<>()).add(listener);
+  }
+
+  public void publishEvict(String cacheName, String key) {
+    publish(nodeId + SEPARATOR + cacheName + SEPARATOR + key);
+  }
+
+  public void publishClear(String cacheName) {
+    publish(nodeId + SEPARATOR + cacheName);
+  }
+
+  private void publish(String message) {
+    try {
+      redisTemplate.convertAndSend(channel, message);
+    } catch (RuntimeException ex) {
+      logger.warn("Could not publish cache invalidation '{}'", message, ex);
+    }
+  }
+
+  @Override
+  public void onMessage(Message message, byte[] pattern) {
+    String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split("\\|", 3);
+    if (parts.length < 2 || nodeId.equals(parts[0])) {
+      return;
+    }
+
+    TwoLevelCache cache = caches.get(parts[1]);
+    if (cache != null) {
+      if (parts.length == 2) {
+        cache.clearLocal();
+      } else {
+        cache.evictLocal(parts[2]);
+      }
+    }
+
+    for (Listener listener : listeners.getOrDefault(parts[1], List.of())) {
+      try {
+        if (parts.length == 2) {
+          listener.cleared();
+        } else {
+          listener.evicted(parts[2]);
+        }
+      } catch (RuntimeException ex) {
+        logger.warn("Cache invalidation listener failed for '{}'", parts[1], ex);
+      }
+    }
+  }
+
+  /** Invalidations another node made to a cache: one key, or all of them. */
+  public interface Listener {
+
+    void evicted(String key);
+
+    void cleared();
+  }
+}
@@ -0,0 +1,280 @@
+package com.example.starwarsplanets.cache;
+
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.UUID;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+import com.example.starwarsplanets.dto.ResponsePlanetDTO;
+
+/**
+ * Binary layout for entries of the "planets" cache. Only {@link ResponsePlanetDTO} values reach
+ * this serializer: {@code RedisCache} stores cached nulls (what an empty {@code Optional} is
+ * cached as) with its own binary {@code NullValue} marker and never passes them here.
+ *
+ * <pre>
+ * version:u8  kind:u8 (1 = planet)
+ * planet:     fields:u8 (one presence bit per component, bit 7 = id stored as a UUID)
+ *             id (16 bytes, or string)  name  terrain  climate  movieAppearances:varint
+ *             createdAt  updatedAt (zigzag varint epoch seconds in UTC, varint nanos)
+ * string:     varint byte length, UTF-8 bytes
+ * </pre>
+ *
+ * The size is computed up front so encoding allocates the exact output array and nothing else
+ * besides the UTF-8 bytes. Entries with any other version are rejected with a
+ * {@link SerializationException}, which the cache error handler turns into a miss.
+ */
+public class PlanetCacheValueSerializer implements RedisSerializer<Object> {
+
+  static final byte VERSION = 1;
+
+  private static final byte KIND_PLANET = 1;
+
+  private static final int HAS_ID = 1;
+  private static final int HAS_NAME = 1 << 1;
+  private static final int HAS_TERRAIN = 1 << 2;
+  private static final int HAS_CLIMATE = 1 << 3;
+  private static final int HAS_MOVIE_APPEARANCES = 1 << 4;
+  private static final int HAS_CREATED_AT = 1 << 5;
+  private static final int HAS_UPDATED_AT = 1 << 6;
+  private static final int ID_IS_UUID = 1 << 7;
+
+  @Override
+  public byte[] serialize(Object value) {
+    if (value == null) {
+      return new byte[0];
+    }
+    if (!(value instanceof ResponsePlanetDTO planet)) {
+      throw new SerializationException(
+          "Cannot serialize " + value.getClass().getName() + " as a planet cache entry");
+    }
+
+    UUID uuid = parseUuid(planet.id());
+    byte[] id = planet.id() != null && uuid == null ? utf8(planet.id()) : null;
+    byte[] name = utf8(planet.name());
+    byte[] terrain = utf8(planet.terrain());
+    byte[] climate = utf8(planet.climate());
+
+    int fields = (planet.id() != null ? HAS_ID : 0) | (uuid != null ? ID_IS_UUID : 0)
+        | (name != null ? HAS_NAME : 0) | (terrain != null ? HAS_TERRAIN : 0)
+        | (climate != null ? HAS_CLIMATE : 0)
+        | (planet.movieAppearances() != null ? HAS_MOVIE_APPEARANCES : 0)
+        | (planet.createdAt() != null ? HAS_CREATED_AT : 0)
+        | (planet.updatedAt() != null ? HAS_UPDATED_AT : 0);
+
+    int size = 3 + (uuid != null ? 16 : stringSize(id)) + stringSize(name) + stringSize(terrain)
+        + stringSize(climate)
+        + (planet.movieAppearances() != null ? varintSize(planet.movieAppearances()) : 0)
+        + dateTimeSize(planet.createdAt()) + dateTimeSize(planet.updatedAt());
+
+    Writer out = new Writer(size);
+    out.writeByte(VERSION);
+    out.writeByte(KIND_PLANET);
+    out.writeByte(fields);
+    if (uuid != null) {
+      out.writeLong(uuid.getMostSignificantBits());
+      out.writeLong(uuid.getLeastSignificantBits());
+    } else {
+      out.writeString(id);
+    }
+    out.writeString(name);
+    out.writeString(terrain);
+    out.writeString(climate);
+    if (planet.movieAppearances() != null) {
+      out.writeVarint(planet.movieAppearances());
+    }
+    out.writeDateTime(planet.createdAt());
+    out.writeDateTime(planet.updatedAt());
+    return out.bytes;
+  }
+
+  @Override
+  public Object deserialize(byte[] bytes) {
+    if (bytes == null || bytes.length == 0) {
+      return null;
+    }
+    if (bytes[0] != VERSION) {
+      throw new SerializationException("Unsupported planet cache entry version " + bytes[0]);
+    }
+
+    try {
+      Reader in = new Reader(bytes);
+      in.position = 1;
+      byte kind = in.readByte();
+      if (kind != KIND_PLANET) {
+        throw new SerializationException("Unknown planet cache entry kind " + kind);
+      }
+
+      int fields = in.readByte() & 0xFF;
+      String id = null;
+      if ((fields & ID_IS_UUID) != 0) {
+        id = new UUID(in.readLong(), in.readLong()).toString();
+      } else if ((fields & HAS_ID) != 0) {
+        id = in.readString();
+      }
+      String name = (fields & HAS_NAME) != 0 ? in.readString() : null;
+      String terrain = (fields & HAS_TERRAIN) != 0 ? in.readString() : null;
+      String climate = (fields & HAS_CLIMATE) != 0 ? in.readString() : null;
+      Integer movieAppearances = (fields & HAS_MOVIE_APPEARANCES) != 0 ? in.readVarint() : null;
+      LocalDateTime createdAt = (fields & HAS_CREATED_AT) != 0 ? in.readDateTime() : null;
+      LocalDateTime updatedAt = (fields & HAS_UPDATED_AT) != 0 ? in.readDateTime() : null;
+
+      if (in.position != bytes.length) {
+        throw new SerializationException("Trailing bytes in planet cache entry");
+      }
+      return new ResponsePlanetDTO(id, name, terrain, climate, movieAppearances, createdAt,
+          updatedAt);
+    } catch (ArrayIndexOutOfBoundsException ex) {
+      throw new SerializationException("Truncated planet cache entry", ex);
+    } catch (DateTimeException ex) {
+      throw new SerializationException("Malformed timestamp in planet cache entry", ex);
+    }
+  }
+
+  private static UUID parseUuid(String id) {
+    if (id == null || id.length() != 36) {
+      return null;
+    }
+    try {
+      UUID uuid = UUID.fromString(id);
+      // Only take the compact form if it decodes back to exactly the same string.
+      return uuid.toString().equals(id) ? uuid : null;
+    } catch (IllegalArgumentException ex) {
+      return null;
+    }
+  }
+
+  private static byte[] utf8(String value) {
+    return value != null ? value.getBytes(StandardCharsets.UTF_8) : null;
+  }
+
+  private static int stringSize(byte[] utf8) {
+    return utf8 != null ? varintSize(utf8.length) + utf8.length : 0;
+  }
+
+  private static int dateTimeSize(LocalDateTime value) {
+    return value != null
+        ? varlongSize(zigzag(value.toEpochSecond(ZoneOffset.UTC))) + varintSize(value.getNano())
+        : 0;
+  }
+
+  private static int varintSize(int value) {
+    return varlongSize(value & 0xFFFFFFFFL);
+  }
+
+  private static int varlongSize(long value) {
+    int size = 1;
+    while ((value & ~0x7FL) != 0) {
+      value >>>= 7;
+      size++;
+    }
+    return size;
+  }
+
+  private static long zigzag(long value) {
+    return (value << 1) ^ (value >> 63);
+  }
+
+  private static final class Writer {
+
+    private final byte[] bytes;
+    private int position;
+
+    private Writer(int size) {
+      this.bytes = new byte[size];
+    }
+
+    private void writeByte(int value) {
+      bytes[position++] = (byte) value;
+    }
+
+    private void writeLong(long value) {
+      for (int shift = 56; shift >= 0; shift -= 8) {
+        bytes[position++] = (byte) (value >>> shift);
+      }
+    }
+
+    private void writeVarint(int value) {
+      writeVarlong(value & 0xFFFFFFFFL);
+    }
+
+    private void writeVarlong(long value) {
+      while ((value & ~0x7FL) != 0) {
+        bytes[position++] = (byte) ((value & 0x7F) | 0x80);
+        value >>>= 7;
+      }
+      bytes[position++] = (byte) value;
+    }
+
+    private void writeString(byte[] utf8) {
+      if (utf8 != null) {
+        writeVarint(utf8.length);
+        System.arraycopy(utf8, 0, bytes, position, utf8.length);
+        position += utf8.length;
+      }
+    }
+
+    private void writeDateTime(LocalDateTime value) {
+      if (value != null) {
+        writeVarlong(zigzag(value.toEpochSecond(ZoneOffset.UTC)));
+        writeVarint(value.getNano());
+      }
+    }
+  }
+
+  private static final class Reader {
+
+    private final byte[] bytes;
+    private int position;
+
+    private Reader(byte[] bytes) {
+      this.bytes = bytes;
+    }
+
+    private byte readByte() {
+      return bytes[position++];
+    }
+
+    private long readLong() {
+      long value = 0;
+      for (int i = 0; i < 8; i++) {
+        value = (value << 8) | (bytes[position++] & 0xFF);
+      }
+      return value;
+    }
+
+    private int readVarint() {
+      return (int) readVarlong();
+    }
+
+    private long readVarlong() {
+      long value = 0;
+      for (int shift = 0; shift < 64; shift += 7) {
+        byte b = bytes[position++];
+        value |= (long) (b & 0x7F) << shift;
+        if (b >= 0) {
+          return value;
+        }
+      }
+      throw new SerializationException("Malformed varint in planet cache entry");
+    }
+
+    private String readString() {
+      int length = readVarint();
+      if (length < 0 || length > bytes.length - position) {
+        throw new SerializationException("Malformed string in planet cache entry");
+      }
+      String value = new String(bytes, position, length, StandardCharsets.UTF_8);
+      position += length;
+      return value;
+    }
+
+    private LocalDateTime readDateTime() {
+      long zigzagged = readVarlong();
+      long epochSecond = (zigzagged >>> 1) ^ -(zigzagged & 1);
+      return LocalDateTime.ofEpochSecond(epochSecond, readVarint(), ZoneOffset.UTC);
+    }
+  }
+}
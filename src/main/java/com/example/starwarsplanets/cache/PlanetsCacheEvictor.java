@@ -0,0 +1,180 @@
+package com.example.starwarsplanets.cache;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import com.example.starwarsplanets.config.ReadReplicaDataSource;
+
+/**
+ * Evicts only the entries a write affects: the id key and the name key of the planet. When called
+ * inside a transaction the eviction is deferred until after commit, so readers cannot reload the
+ * pre-commit row into the cache once it has been evicted. Every write also bumps the
+ * {@link PlanetsCollectionVersion}, which list ETags are derived from.
+ *
+ * <p>With a read replica, a read-only transaction may still see the row as it was before the
+ * write and put it back into the cache, so the eviction and the version bump are repeated once
+ * the replica's staleness bound has passed. The repeats are coalesced: keys are collected with the
+ * time of their write, and a single scheduled task evicts those that are due and reschedules
+ * itself for the next one, so a burst of writes costs one task on the shared scheduler.
+ *
+ * <p>The write has already committed when these run, so a cache that cannot be reached (Redis
+ * down) is logged like the {@code CacheErrorHandler} does for {@code @Cacheable}, and the version
+ * bump and the replica repeat still happen.
+ */
+@Component
+public class PlanetsCacheEvictor {
+
+  public static final String CACHE_NAME = "planets";
+
+  private static final Logger logger = LoggerFactory.getLogger(PlanetsCacheEvictor.class);
+
+  private final CacheManager cacheManager;
+  private final PlanetsCollectionVersion collectionVersion;
+  private final ObjectProvider<ReadReplicaDataSource> readReplica;
+  private final ObjectProvider<TaskScheduler> taskScheduler;
+
+  private final Object repeatLock = new Object();
+  // Keys to evict again, oldest write first, with System.nanoTime() of the write.
+  private final Map<Object, Long> repeatKeys = new LinkedHashMap<>();
+  private Long repeatClearNanos;
+  private boolean repeatScheduled;
+
+  public PlanetsCacheEvictor(CacheManager cacheManager,
+      PlanetsCollectionVersion collectionVersion,
+      ObjectProvider<ReadReplicaDataSource> readReplica,
+      ObjectProvider<TaskScheduler> taskScheduler) {
+    this.cacheManager = cacheManager;
+    this.collectionVersion = collectionVersion;
+    this.readReplica = readReplica;
+    this.taskScheduler = taskScheduler;
+  }
+
+  public void evictAfterCommit(Object id, String name) {
+    evictAfterCommit(List.of(id, name));
+  }
+
+  public void evictAfterCommit(Collection<?> keys) {
+    afterCommit(() -> evict(keys), keys, false);
+  }
+
+  /**
+   * For bulk writes (imports) where listing every affected key would cost more than rebuilding.
+   */
+  public void clearAfterCommit() {
+    afterCommit(this::clear, List.of(), true);
+  }
+
+  private void afterCommit(Runnable action, Collection<?> keys, boolean clear) {
+    Runnable now = () -> {
+      evictAndBump(action);
+      repeatOnceReplicaCaughtUp(keys, clear);
+    };
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCommit() {
+          now.run();
+        }
+      });
+    } else {
+      now.run();
+    }
+  }
+
+  private void evictAndBump(Runnable action) {
+    try {
+      action.run();
+    } catch (RuntimeException ex) {
+      logger.warn("Could not evict from the '{}' cache after a write: {}", CACHE_NAME,
+          ex.getMessage());
+    }
+    collectionVersion.bump();
+  }
+
+  private void repeatOnceReplicaCaughtUp(Collection<?> keys, boolean clear) {
+    ReadReplicaDataSource replica = readReplica.getIfAvailable();
+    TaskScheduler scheduler = taskScheduler.getIfUnique();
+    if (replica == null || scheduler == null) {
+      return;
+    }
+    long now = System.nanoTime();
+    synchronized (repeatLock) {
+      for (Object key : keys) {
+        // Re-inserted, so the map stays ordered by write time.
+        repeatKeys.remove(key);
+        repeatKeys.put(key, now);
+      }
+      if (clear) {
+        repeatClearNanos = now;
+      }
+      if (repeatScheduled) {
+        return;
+      }
+      repeatScheduled = true;
+    }
+    scheduler.schedule(this::repeatDue, Instant.now().plus(replica.stalenessBound()));
+  }
+
+  /** Repeats the evictions whose staleness bound has passed; reschedules for the rest. */
+  private void repeatDue() {
+    long cutoff = System.nanoTime() - readReplica.getObject().stalenessBound().toNanos();
+    List<Object> due = new ArrayList<>();
+    boolean clear = false;
+    Long next;
+    synchronized (repeatLock) {
+      if (repeatClearNanos != null && repeatClearNanos - cutoff <= 0) {
+        clear = true;
+        repeatClearNanos = null;
+      }
+      Iterator<Map.Entry<Object, Long>> pending = repeatKeys.entrySet().iterator();
+      next = repeatClearNanos;
+      while (pending.hasNext()) {
+        Map.Entry<Object, Long> entry = pending.next();
+        if (entry.getValue() - cutoff > 0) {
+          next = next == null || entry.getValue() - next < 0 ? entry.getValue() : next;
+          break;
+        }
+        due.add(entry.getKey());
+        pending.remove();
+      }
+      repeatScheduled = next != null;
+    }
+
+    if (clear) {
+      evictAndBump(this::clear);
+    } else if (!due.isEmpty()) {
+      evictAndBump(() -> evict(due));
+    }
+    if (next != null) {
+      taskScheduler.getObject().schedule(this::repeatDue, Instant.now().plusNanos(next - cutoff));
+    }
+  }
+
+  private void evict(Collection<?> keys) {
+    Cache cache = cacheManager.getCache(CACHE_NAME);
+    if (cache == null) {
+      return;
+    }
+    keys.forEach(cache::evict);
+  }
+
+  private void clear() {
+    Cache cache = cacheManager.getCache(CACHE_NAME);
+    if (cache != null) {
+      cache.clear();
+    }
+  }
+}
@@ -0,0 +1,79 @@
+package com.example.starwarsplanets.cache;
+
+import java.util.OptionalLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Version of the planets collection as a whole, shared by all nodes through Redis and bumped after
+ * every committed write (see {@link PlanetsCacheEvictor}). List responses derive their ETag from
+ * it, so a revalidation can be answered without querying the database.
+ *
+ * <p>
+ * A missing key is initialized to the current time rather than zero, so a Redis flush cannot bring
+ * back a version that clients still hold an ETag for. If a bump fails, the key is deleted so that
+ * it is re-seeded from the clock; if that fails too, this node reports no version (and lists fall
+ * back to content ETags) until the delete succeeds.
+ */
+@Component
+public class PlanetsCollectionVersion {
+
+  static final String VERSION_KEY = "planets:collection:version";
+
+  private static final Logger logger = LoggerFactory.getLogger(PlanetsCollectionVersion.class);
+
+  private final RedisTemplate<String, Object> redisTemplate;
+  private volatile boolean resetPending;
+
+  public PlanetsCollectionVersion(RedisTemplate<String, Object> redisTemplate) {
+    this.redisTemplate = redisTemplate;
+  }
+
+  /** The current version, or empty if Redis cannot be reached or a bump was lost. */
+  public OptionalLong current() {
+    if (resetPending && !reset()) {
+      return OptionalLong.empty();
+    }
+    try {
+      Object version = redisTemplate.opsForValue().get(VERSION_KEY);
+      if (version == null) {
+        redisTemplate.opsForValue().setIfAbsent(VERSION_KEY,
+            String.valueOf(System.currentTimeMillis()));
+        version = redisTemplate.opsForValue().get(VERSION_KEY);
+      }
+      return version != null ? OptionalLong.of(Long.parseLong((String) version))
+          : OptionalLong.empty();
+    } catch (RuntimeException ex) {
+      logger.debug("Could not read the planets collection version: {}", ex.getMessage());
+      return OptionalLong.empty();
+    }
+  }
+
+  void bump() {
+    try {
+      redisTemplate.opsForValue().increment(VERSION_KEY);
+    } catch (RuntimeException ex) {
+      logger.warn("Could not bump the planets collection version, resetting it: {}",
+          ex.getMessage());
+      resetPending = true;
+      reset();
+    }
+  }
+
+  /**
+   * Deletes the version so the next read seeds a new one from the clock, which in practice is
+   * ahead of any version handed out before the lost bump.
+   */
+  private boolean reset() {
+    try {
+      redisTemplate.delete(VERSION_KEY);
+      resetPending = false;
+      return true;
+    } catch (RuntimeException ex) {
+      logger.debug("Could not reset the planets collection version: {}", ex.getMessage());
+      return false;
+    }
+  }
+}
@@ -0,0 +1,250 @@
+package com.example.starwarsplanets.cache;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicLongArray;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.AbstractValueAdaptingCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Near cache: a bounded in-process tier (L1) in front of a shared remote tier (L2). Reads fall
+ * through L1 to L2 and promote what they find; writes go to both tiers and tell the other nodes to
+ * drop their L1 copy.
+ *
+ * <p>
+ * Every key hashes to a generation stripe that evictions (local or broadcast) bump. A read-through
+ * load ({@link #get(Object, Callable)}, what {@code @Cacheable(sync = true)} calls) remembers the
+ * generation it started from, and its result is not kept, or is undone, if a writer invalidated
+ * the key in between. A concurrent read on this node can therefore never repopulate a value older
+ * than this node's latest eviction. The load and the check happen in one call, so no state is
+ * carried from a miss to a later {@link #put}.
+ *
+ * <p>Generations are per node. Another node bumps its own only when the pub/sub message arrives,
+ * so a load already in flight there can still write a value older than this node's eviction to
+ * Redis: a "not found" right after a create, or a planet right after its delete. Every node then
+ * serves that entry until it expires. Cached misses are therefore kept only for
+ * {@code planets.cache.negative-ttl}. A stale planet after a delete lasts at most
+ * {@code planets.cache.ttl}.
+ */
+public class TwoLevelCache extends AbstractValueAdaptingCache {
+
+  private static final int GENERATION_STRIPES = 1024;
+
+  private final String name;
+  private final com.github.benmanes.caffeine.cache.Cache<String, Object> local;
+  private final Cache remote;
+  private final CacheInvalidationBus invalidationBus;
+  private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+
+  private final Counter localHits;
+  private final Counter localMisses;
+  private final Counter remoteHits;
+  private final Counter remoteMisses;
+  private final Counter stalePuts;
+  private final Counter keyInvalidations;
+  private final Counter allInvalidations;
+  private final Counter remoteKeyInvalidations;
+  private final Counter remoteAllInvalidations;
+
+  public TwoLevelCache(String name, com.github.benmanes.caffeine.cache.Cache<String, Object> local,
+      Cache remote, CacheInvalidationBus invalidationBus, MeterRegistry meterRegistry) {
+    super(true);
+    this.name = name;
+    this.local = local;
+    this.remote = remote;
+    this.invalidationBus = invalidationBus;
+
+    this.localHits = requests(meterRegistry, "local", "hit");
+    this.localMisses = requests(meterRegistry, "local", "miss");
+    this.remoteHits = requests(meterRegistry, "remote", "hit");
+    this.remoteMisses = requests(meterRegistry, "remote", "miss");
+    this.stalePuts = Counter.builder("planets.cache.stale.puts").tag("cache", name)
+        .register(meterRegistry);
+    this.keyInvalidations = invalidations(meterRegistry, "key", "local");
+    this.allInvalidations = invalidations(meterRegistry, "all", "local");
+    this.remoteKeyInvalidations = invalidations(meterRegistry, "key", "remote");
+    this.remoteAllInvalidations = invalidations(meterRegistry, "all", "remote");
+
+    Gauge.builder("planets.cache.size", local, c -> c.estimatedSize()).tag("cache", name)
+        .tag("tier", "local").register(meterRegistry);
+    FunctionCounter.builder("planets.cache.evictions", local, c -> c.stats().evictionCount())
+        .tag("cache", name).tag("tier", "local").register(meterRegistry);
+  }
+
+  private Counter requests(MeterRegistry meterRegistry, String tier, String result) {
+    return Counter.builder("planets.cache.requests").tag("cache", name).tag("tier", tier)
+        .tag("result", result).register(meterRegistry);
+  }
+
+  /** Evictions by writes, on this node ({@code local}) or received from other nodes. */
+  private Counter invalidations(MeterRegistry meterRegistry, String scope, String origin) {
+    return Counter.builder("planets.cache.invalidations").tag("cache", name).tag("scope", scope)
+        .tag("origin", origin).register(meterRegistry);
+  }
+
+  @Override
+  public String getName() {
+    return name;
+  }
+
+  @Override
+  public Object getNativeCache() {
+    return local;
+  }
+
+  @Override
+  protected Object lookup(Object key) {
+    String localKey = localKey(key);
+    Object value = local.getIfPresent(localKey);
+    if (value != null) {
+      localHits.increment();
+      return value;
+    }
+    localMisses.increment();
+
+    long generation = generation(localKey);
+    ValueWrapper wrapper = remote.get(key);
+    if (wrapper == null) {
+      remoteMisses.increment();
+      return null;
+    }
+    remoteHits.increment();
+
+    Object storeValue = toStoreValue(wrapper.get());
+    local.put(localKey, storeValue);
+    if (generation(localKey) != generation) {
+      local.invalidate(localKey);
+    }
+    return storeValue;
+  }
+
+  /**
+   * Whether the local tier holds {@code key}. Never goes to Redis and is not counted as a cache
+   * request, so it is cheap enough to call before a request is admitted.
+   */
+  public boolean isCachedLocally(Object key) {
+    return local.getIfPresent(localKey(key)) != null;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public <T> T get(Object key, Callable<T> valueLoader) {
+    String localKey = localKey(key);
+    Object value = local.getIfPresent(localKey);
+    if (value != null) {
+      localHits.increment();
+      return (T) fromStoreValue(value);
+    }
+    localMisses.increment();
+
+    long generation = generation(localKey);
+    ValueWrapper wrapper = remote.get(key);
+    boolean loaded = wrapper == null;
+    Object storeValue;
+    if (loaded) {
+      remoteMisses.increment();
+      T result;
+      try {
+        result = valueLoader.call();
+      } catch (Exception ex) {
+        throw new ValueRetrievalException(key, valueLoader, ex);
+      }
+      if (generation(localKey) != generation) {
+        // A writer evicted the key during the load; the result may predate the write.
+        stalePuts.increment();
+        return result;
+      }
+      remote.put(key, result);
+      storeValue = toStoreValue(result);
+    } else {
+      remoteHits.increment();
+      storeValue = toStoreValue(wrapper.get());
+    }
+
+    local.put(localKey, storeValue);
+    if (generation(localKey) != generation) {
+      // A writer evicted the key while we were storing it; undo rather than leave a stale value.
+      local.invalidate(localKey);
+      if (loaded) {
+        stalePuts.increment();
+        remote.evict(key);
+      }
+    }
+    return (T) fromStoreValue(storeValue);
+  }
+
+  @Override
+  public void put(Object key, Object value) {
+    String localKey = localKey(key);
+    remote.put(key, value);
+    local.put(localKey, toStoreValue(value));
+    invalidationBus.publishEvict(name, localKey);
+  }
+
+  /** Drops the local copies here and on other nodes even when the remote tier fails. */
+  @Override
+  public void evict(Object key) {
+    keyInvalidations.increment();
+    String localKey = localKey(key);
+    bumpGeneration(localKey);
+    try {
+      remote.evict(key);
+    } finally {
+      local.invalidate(localKey);
+      invalidationBus.publishEvict(name, localKey);
+    }
+  }
+
+  @Override
+  public void clear() {
+    allInvalidations.increment();
+    bumpAllGenerations();
+    try {
+      remote.clear();
+    } finally {
+      local.invalidateAll();
+      invalidationBus.publishClear(name);
+    }
+  }
+
+  void evictLocal(String key) {
+    remoteKeyInvalidations.increment();
+    bumpGeneration(key);
+    local.invalidate(key);
+  }
+
+  void clearLocal() {
+    remoteAllInvalidations.increment();
+    bumpAllGenerations();
+    local.invalidateAll();
+  }
+
+  private long generation(String localKey) {
+    return generations.get(stripe(localKey));
+  }
+
+  private void bumpGeneration(String localKey) {
+    generations.incrementAndGet(stripe(localKey));
+  }
+
+  private void bumpAllGenerations() {
+    for (int i = 0; i < GENERATION_STRIPES; i++) {
+      generations.incrementAndGet(i);
+    }
+  }
+
+  private static int stripe(String localKey) {
+    return localKey.hashCode() & (GENERATION_STRIPES - 1);
+  }
+
+  /**
+   * Redis keys are built from {@code key.toString()}, so the local tier uses the same form; a UUID
+   * and its string representation then address the same entry in both tiers.
+   */
+  private static String localKey(Object key) {
+    return String.valueOf(key);
+  }
+}
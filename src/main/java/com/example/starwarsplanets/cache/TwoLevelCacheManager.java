@@ -0,0 +1,54 @@
+package com.example.starwarsplanets.cache;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import com.example.starwarsplanets.config.PlanetsCacheProperties;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+
+public class TwoLevelCacheManager implements CacheManager {
+
+  private final CacheManager remoteCacheManager;
+  private final CacheInvalidationBus invalidationBus;
+  private final MeterRegistry meterRegistry;
+  private final PlanetsCacheProperties.Local localProperties;
+  private final ConcurrentMap<String, Cache> caches = new ConcurrentHashMap<>();
+
+  public TwoLevelCacheManager(CacheManager remoteCacheManager,
+      CacheInvalidationBus invalidationBus, MeterRegistry meterRegistry,
+      PlanetsCacheProperties.Local localProperties) {
+    this.remoteCacheManager = remoteCacheManager;
+    this.invalidationBus = invalidationBus;
+    this.meterRegistry = meterRegistry;
+    this.localProperties = localProperties;
+  }
+
+  @Override
+  public Cache getCache(String name) {
+    return caches.computeIfAbsent(name, this::createCache);
+  }
+
+  @Override
+  public Collection<String> getCacheNames() {
+    return Collections.unmodifiableSet(caches.keySet());
+  }
+
+  private Cache createCache(String name) {
+    Cache remote = remoteCacheManager.getCache(name);
+    if (remote == null) {
+      return null;
+    }
+
+    com.github.benmanes.caffeine.cache.Cache<String, Object> local =
+        Caffeine.newBuilder().maximumSize(localProperties.maximumSize())
+            .expireAfterWrite(localProperties.ttl()).recordStats().build();
+
+    TwoLevelCache cache = new TwoLevelCache(name, local, remote, invalidationBus, meterRegistry);
+    invalidationBus.register(cache);
+    return cache;
+  }
+}
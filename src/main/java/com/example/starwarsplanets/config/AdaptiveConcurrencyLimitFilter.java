@@ -0,0 +1,169 @@
+package com.example.starwarsplanets.config;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.UUID;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import com.example.starwarsplanets.cache.PlanetsCacheEvictor;
+import com.example.starwarsplanets.cache.TwoLevelCache;
+import com.example.starwarsplanets.error.ErrorResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import tools.jackson.databind.ObjectMapper;
+
+/**
+ * Load shedding for {@code /v1/planets}. Each request class has its own adaptive limit
+ * ({@link AimdLimiter}) on the requests it may have in flight: lookups by id or name that the
+ * planets cache can answer, database-bound reads (pages, filters, prefix and fuzzy search, and
+ * lookups that miss the cache), and writes. A request over its class limit is answered 429 with
+ * {@code Retry-After} at once instead of waiting for a pool connection, and because cached lookups
+ * have their own limit they keep being served while database-bound requests are shed. The NDJSON
+ * export streams asynchronously and is not limited.
+ *
+ * <p>Exposes {@code planets.concurrency.limit}, {@code planets.concurrency.in-flight} and
+ * {@code planets.concurrency.rejected}, tagged with the request class.
+ */
+@Component
+@EnableConfigurationProperties(ConcurrencyLimitProperties.class)
+public class AdaptiveConcurrencyLimitFilter extends OncePerRequestFilter {
+
+  private static final String PLANETS_PATH = "/v1/planets";
+  private static final String EXPORT_PATH = "/v1/planets/export";
+  private static final String SEARCH_PATH = "/v1/planets/search";
+
+  enum RequestClass {
+    CACHED_READ("cached-read"), DATABASE_READ("database-read"), WRITE("write");
+
+    private final String tag;
+
+    RequestClass(String tag) {
+      this.tag = tag;
+    }
+  }
+
+  private final ConcurrencyLimitProperties properties;
+  private final CacheManager cacheManager;
+  private final ObjectMapper objectMapper;
+  private final String retryAfter;
+  private final Map<RequestClass, AimdLimiter> limiters = new EnumMap<>(RequestClass.class);
+  private final Map<RequestClass, Counter> rejections = new EnumMap<>(RequestClass.class);
+
+  public AdaptiveConcurrencyLimitFilter(ConcurrencyLimitProperties properties,
+      CacheManager cacheManager, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+    this.properties = properties;
+    this.cacheManager = cacheManager;
+    this.objectMapper = objectMapper;
+    this.retryAfter = String.valueOf(Math.max(1, properties.retryAfter().toSeconds()));
+
+    limiters.put(RequestClass.CACHED_READ,
+        new AimdLimiter(properties.cachedReads(), properties.backoffRatio()));
+    limiters.put(RequestClass.DATABASE_READ,
+        new AimdLimiter(properties.databaseReads(), properties.backoffRatio()));
+    limiters.put(RequestClass.WRITE,
+        new AimdLimiter(properties.writes(), properties.backoffRatio()));
+    limiters.forEach((requestClass, limiter) -> {
+      Gauge.builder("planets.concurrency.limit", limiter, AimdLimiter::limit)
+          .description("Current adaptive concurrency limit").tag("class", requestClass.tag)
+          .register(meterRegistry);
+      Gauge.builder("planets.concurrency.in-flight", limiter, AimdLimiter::inFlight)
+          .description("Requests in flight under the concurrency limit")
+          .tag("class", requestClass.tag).register(meterRegistry);
+      rejections.put(requestClass, Counter.builder("planets.concurrency.rejected")
+          .description("Requests rejected with 429 because the concurrency limit was reached")
+          .tag("class", requestClass.tag).register(meterRegistry));
+    });
+  }
+
+  @Override
+  protected boolean shouldNotFilter(HttpServletRequest request) {
+    String path = request.getRequestURI();
+    return !properties.enabled() || !path.startsWith(PLANETS_PATH) || path.equals(EXPORT_PATH);
+  }
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+      FilterChain filterChain) throws ServletException, IOException {
+    RequestClass requestClass = classify(request);
+    AimdLimiter limiter = limiters.get(requestClass);
+    if (!limiter.tryAcquire()) {
+      rejections.get(requestClass).increment();
+      reject(request, response);
+      return;
+    }
+
+    long start = System.nanoTime();
+    boolean completed = false;
+    try {
+      filterChain.doFilter(request, response);
+      completed = true;
+    } finally {
+      if (completed) {
+        // A 503 means the pool ran out of connections: back off regardless of latency.
+        limiter.release(System.nanoTime() - start,
+            response.getStatus() == HttpStatus.SERVICE_UNAVAILABLE.value());
+      } else {
+        limiter.release();
+      }
+    }
+  }
+
+  /**
+   * A lookup counts as a cached read only when the local tier of the planets cache holds its key.
+   * Anything else, a Redis-only entry included, may query the database and so takes a
+   * database-read permit. Classification never goes to Redis: it runs before admission, for
+   * requests that are about to be shed too.
+   */
+  RequestClass classify(HttpServletRequest request) {
+    String method = request.getMethod();
+    if (!"GET".equals(method) && !"HEAD".equals(method)) {
+      return RequestClass.WRITE;
+    }
+    if (!SEARCH_PATH.equals(request.getRequestURI())) {
+      return RequestClass.DATABASE_READ;
+    }
+    String key = lookupKey(request);
+    return key != null && isCached(key) ? RequestClass.CACHED_READ : RequestClass.DATABASE_READ;
+  }
+
+  /** The planets cache key the lookup reads: the id in canonical form, otherwise the name. */
+  private static String lookupKey(HttpServletRequest request) {
+    String id = request.getParameter("id");
+    if (id == null) {
+      return request.getParameter("name");
+    }
+    try {
+      return UUID.fromString(id).toString();
+    } catch (IllegalArgumentException ex) {
+      return null;
+    }
+  }
+
+  private boolean isCached(String key) {
+    return cacheManager.getCache(PlanetsCacheEvictor.CACHE_NAME) instanceof TwoLevelCache cache
+        && cache.isCachedLocally(key);
+  }
+
+  private void reject(HttpServletRequest request, HttpServletResponse response)
+      throws IOException {
+    response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+    response.setHeader(HttpHeaders.RETRY_AFTER, retryAfter);
+    response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+    objectMapper.writeValue(response.getOutputStream(),
+        new ErrorResponse(HttpStatus.TOO_MANY_REQUESTS.value(), "Too Many Requests",
+            "The service is at its concurrency limit, retry shortly", request.getRequestURI(),
+            LocalDateTime.now()));
+  }
+}
@@ -0,0 +1,87 @@
+package com.example.starwarsplanets.config;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/**
+ * Additive-increase/multiplicative-decrease concurrency limit. A request that finishes within the
+ * latency threshold raises the limit by one, but only while at least half of it is in use, so an
+ * idle period does not inflate it; a slower or overloaded one multiplies it by the backoff ratio.
+ * The limit backs off at most once per latency threshold. Requests that were in flight together
+ * usually finish slow together, and they count as one congestion signal, not one each.
+ */
+final class AimdLimiter {
+
+  private final int minLimit;
+  private final int maxLimit;
+  private final double backoffRatio;
+  private final long latencyThresholdNanos;
+  private final LongSupplier nanoClock;
+  private final AtomicInteger inFlight = new AtomicInteger();
+  private volatile int limit;
+  private long lastDecreaseNanos;
+  private boolean decreased;
+
+  AimdLimiter(ConcurrencyLimitProperties.Limit properties, double backoffRatio) {
+    this(properties, backoffRatio, System::nanoTime);
+  }
+
+  AimdLimiter(ConcurrencyLimitProperties.Limit properties, double backoffRatio,
+      LongSupplier nanoClock) {
+    this.nanoClock = nanoClock;
+    this.minLimit = Math.max(1, properties.min());
+    this.maxLimit = Math.max(minLimit, properties.max());
+    this.backoffRatio = backoffRatio;
+    this.latencyThresholdNanos = properties.latencyThreshold().toNanos();
+    this.limit = Math.clamp(properties.initial(), minLimit, maxLimit);
+  }
+
+  boolean tryAcquire() {
+    while (true) {
+      int current = inFlight.get();
+      if (current >= limit) {
+        return false;
+      }
+      if (inFlight.compareAndSet(current, current + 1)) {
+        return true;
+      }
+    }
+  }
+
+  /** Releases a permit and adapts the limit to how the request went. */
+  void release(long latencyNanos, boolean overloaded) {
+    int inFlightBefore = inFlight.getAndDecrement();
+    if (overloaded || latencyNanos > latencyThresholdNanos) {
+      decrease();
+    } else if (inFlightBefore * 2 >= limit) {
+      increase();
+    }
+  }
+
+  /** Releases a permit without a latency sample, for requests that failed with an exception. */
+  void release() {
+    inFlight.decrementAndGet();
+  }
+
+  int limit() {
+    return limit;
+  }
+
+  int inFlight() {
+    return inFlight.get();
+  }
+
+  private synchronized void increase() {
+    limit = Math.min(maxLimit, limit + 1);
+  }
+
+  private synchronized void decrease() {
+    long now = nanoClock.getAsLong();
+    if (decreased && now - lastDecreaseNanos < latencyThresholdNanos) {
+      return;
+    }
+    decreased = true;
+    lastDecreaseNanos = now;
+    limit = Math.max(minLimit, (int) (limit * backoffRatio));
+  }
+}
@@ -1,30 +1,121 @@
 package com.example.starwarsplanets.config;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
 import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.FixedDelayTask;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
 import org.springframework.stereotype.Component;
+import com.example.starwarsplanets.service.MovieAppearancesSnapshotStore;
 import com.example.starwarsplanets.service.PlanetsCacheService;
-import com.example.starwarsplanets.service.SwapiService;
+import com.example.starwarsplanets.service.SwapiIndexRefresher;
+import com.example.starwarsplanets.service.SwapiIndexRefresher.RefreshResult;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.slf4j.LoggerFactory;
 import org.slf4j.Logger;
 
+/**
+ * Loads the movie-appearance index from the local snapshot at boot, which takes milliseconds, and
+ * refreshes it from SWAPI in the background. Startup never waits for SWAPI; readiness is reported
+ * through {@link MovieAppearancesIndexHealthIndicator} once either source has been loaded. After
+ * that, {@link SwapiIndexRefresher} runs every {@code planets.index.refresh.interval}.
+ */
 @Component
-public class CacheInitializer implements SmartInitializingSingleton {
+@EnableConfigurationProperties(MovieAppearancesIndexProperties.class)
+public class CacheInitializer implements SmartInitializingSingleton, SchedulingConfigurer {
 
   private final PlanetsCacheService planetsCacheService;
-  private final SwapiService swapiService;
+  private final SwapiIndexRefresher indexRefresher;
+  private final MovieAppearancesIndexProperties.Refresh scheduledRefresh;
+  private final MovieAppearancesSnapshotStore snapshotStore;
+  private final TaskExecutor taskExecutor;
+  private final MeterRegistry meterRegistry;
 
-  public CacheInitializer(PlanetsCacheService planetsCacheService, SwapiService swapiService) {
+  private volatile Instant indexedAt;
+
+  public CacheInitializer(PlanetsCacheService planetsCacheService,
+      SwapiIndexRefresher indexRefresher, MovieAppearancesSnapshotStore snapshotStore,
+      @Qualifier("applicationTaskExecutor") TaskExecutor taskExecutor,
+      MovieAppearancesIndexProperties indexProperties, MeterRegistry meterRegistry) {
     this.planetsCacheService = planetsCacheService;
-    this.swapiService = swapiService;
+    this.indexRefresher = indexRefresher;
+    this.scheduledRefresh = indexProperties.refresh();
+    this.snapshotStore = snapshotStore;
+    this.taskExecutor = taskExecutor;
+    this.meterRegistry = meterRegistry;
+
+    Gauge.builder("planets.index.snapshot.age", this, CacheInitializer::snapshotAgeSeconds)
+        .description("Seconds since the movie-appearance index was last refreshed")
+        .baseUnit("seconds").register(meterRegistry);
   }
 
   private static final Logger logger = LoggerFactory.getLogger(CacheInitializer.class);
 
   @Override
   public void afterSingletonsInstantiated() {
-    swapiService.indexPlanetsMovieAppearances()
-        .forEach(planetsCacheService::saveData);
+    snapshotStore.load().ifPresent(snapshot -> {
+      planetsCacheService.seed(snapshot.appearances());
+      indexedAt = snapshot.savedAt();
+      logger.info("CacheInitializer: loaded {} movie appearances from snapshot taken at {}",
+          snapshot.appearances().size(), snapshot.savedAt());
+    });
+
+    taskExecutor.execute(this::refresh);
+  }
+
+  /** Schedules the refresh from the bound properties, so it follows any relaxed-binding form. */
+  @Override
+  public void configureTasks(ScheduledTaskRegistrar registrar) {
+    if (scheduledRefresh.enabled()) {
+      registrar.addFixedDelayTask(new FixedDelayTask(this::refresh, scheduledRefresh.interval(),
+          scheduledRefresh.interval()));
+    }
+  }
+
+  public void refresh() {
+    Timer.Sample sample = Timer.start(meterRegistry);
+    String outcome = "success";
+    try {
+      Optional<RefreshResult> result = indexRefresher.refresh();
+      if (result.isEmpty()) {
+        outcome = "skipped";
+        return;
+      }
+      indexedAt = Instant.now();
+      RefreshResult refreshed = result.get();
+      logger.info(
+          "CacheInitializer: index refreshed from SWAPI ({} planets, {} changed, {} removed, "
+              + "{} rows backfilled{})",
+          refreshed.indexed(), refreshed.changed(), refreshed.removed(), refreshed.backfilled(),
+          refreshed.republished() ? ", republished" : "");
+    } catch (RuntimeException ex) {
+      outcome = "failure";
+      logger.warn("CacheInitializer: SWAPI refresh failed, serving {}",
+          indexedAt != null ? "snapshot from " + indexedAt : "no index yet", ex);
+    } finally {
+      sample.stop(Timer.builder("planets.index.refresh")
+          .description("Time to refresh the movie-appearance index from SWAPI")
+          .tag("outcome", outcome).register(meterRegistry));
+    }
+  }
+
+  public boolean isReady() {
+    return indexedAt != null;
+  }
+
+  public Optional<Instant> getIndexedAt() {
+    return Optional.ofNullable(indexedAt);
+  }
 
-    logger.info("CacheInitializer: Redis cache initialized and ready");
+  private double snapshotAgeSeconds() {
+    Instant at = indexedAt;
+    return at != null ? Duration.between(at, Instant.now()).toMillis() / 1000.0 : Double.NaN;
   }
 }
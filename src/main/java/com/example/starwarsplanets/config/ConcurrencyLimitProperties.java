@@ -0,0 +1,22 @@
+package com.example.starwarsplanets.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Adaptive concurrency limits for {@code /v1/planets}, one per request class. Each limit starts at
+ * {@code initial}, grows by one per request that completes within {@code latencyThreshold} while
+ * the limit is in use, and shrinks by {@code backoffRatio} (never below {@code min}) per request
+ * that is slower or answered 503. Requests over the limit get a 429 with {@code retryAfter}.
+ */
+@ConfigurationProperties(prefix = "planets.concurrency-limit")
+public record ConcurrencyLimitProperties(@DefaultValue("true") boolean enabled,
+    @DefaultValue("0.9") double backoffRatio, @DefaultValue("1s") Duration retryAfter,
+    @DefaultValue Limit cachedReads, @DefaultValue Limit databaseReads,
+    @DefaultValue Limit writes) {
+
+  public record Limit(@DefaultValue("20") int initial, @DefaultValue("2") int min,
+      @DefaultValue("200") int max, @DefaultValue("250ms") Duration latencyThreshold) {
+  }
+}
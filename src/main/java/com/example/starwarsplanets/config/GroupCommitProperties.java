@@ -0,0 +1,17 @@
+package com.example.starwarsplanets.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Group commit of concurrent creates. A group is flushed once {@code maxBatchSize} requests are
+ * queued or {@code window} has passed since the first one, by up to {@code flushers} concurrent
+ * transactions. While the average queueing delay exceeds {@code latencySlo}, creates bypass the
+ * queue and are committed on their own.
+ */
+@ConfigurationProperties(prefix = "planets.group-commit")
+public record GroupCommitProperties(@DefaultValue("false") boolean enabled,
+    @DefaultValue("2ms") Duration window, @DefaultValue("64") int maxBatchSize,
+    @DefaultValue("2") int flushers, @DefaultValue("50ms") Duration latencySlo) {
+}
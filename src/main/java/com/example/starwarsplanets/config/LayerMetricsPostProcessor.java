@@ -0,0 +1,128 @@
+package com.example.starwarsplanets.config;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.framework.Advised;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+import com.example.starwarsplanets.mapper.PlanetMapper;
+import com.example.starwarsplanets.repository.PlanetsJdbcRepository;
+import com.example.starwarsplanets.repository.PlanetsRepository;
+import com.example.starwarsplanets.repository.PlanetsSearchRepository;
+import com.example.starwarsplanets.service.PlanetsCacheService;
+import com.example.starwarsplanets.service.SwapiService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Times every public call into the layers a request passes through, as
+ * {@code planets.layer.calls{layer, operation, outcome}} with histogram buckets: the
+ * movie-appearance index ({@link PlanetsCacheService}, Redis and its in-process snapshot), Postgres
+ * (the repositories), mapping ({@link PlanetMapper}) and SWAPI ({@link SwapiService}). Beans that
+ * already are proxies (Spring Data repositories, {@code @Repository} exception translation) get
+ * the interceptor added to their advice chain; the others are wrapped in a new proxy. Calls a bean
+ * makes on itself are not intercepted, and methods returning a {@code Stream} are timed up to the
+ * point the stream is opened.
+ */
+@Component
+public class LayerMetricsPostProcessor implements BeanPostProcessor, Ordered {
+
+  private static final Map<Class<?>, String> LAYERS = new LinkedHashMap<>();
+
+  static {
+    LAYERS.put(PlanetsCacheService.class, "movie-index");
+    LAYERS.put(PlanetsRepository.class, "postgres");
+    LAYERS.put(PlanetsJdbcRepository.class, "postgres");
+    LAYERS.put(PlanetsSearchRepository.class, "postgres");
+    LAYERS.put(PlanetMapper.class, "mapper");
+    LAYERS.put(SwapiService.class, "swapi");
+  }
+
+  private final ObjectProvider<MeterRegistry> meterRegistry;
+
+  public LayerMetricsPostProcessor(ObjectProvider<MeterRegistry> meterRegistry) {
+    this.meterRegistry = meterRegistry;
+  }
+
+  @Override
+  public Object postProcessAfterInitialization(Object bean, String beanName) {
+    for (Map.Entry<Class<?>, String> layer : LAYERS.entrySet()) {
+      if (layer.getKey().isInstance(bean)) {
+        return advise(bean, layer.getKey(), layer.getValue());
+      }
+    }
+    return bean;
+  }
+
+  @Override
+  public int getOrder() {
+    return Ordered.LOWEST_PRECEDENCE;
+  }
+
+  private Object advise(Object bean, Class<?> type, String layer) {
+    Advisor advisor =
+        new DefaultPointcutAdvisor(new LayerTimingInterceptor(layer, type.getSimpleName()));
+    if (bean instanceof Advised advised && !advised.isFrozen()) {
+      advised.addAdvisor(0, advisor);
+      return bean;
+    }
+
+    ProxyFactory proxyFactory = new ProxyFactory(bean);
+    proxyFactory.setProxyTargetClass(!type.isInterface());
+    proxyFactory.addAdvisor(advisor);
+    return proxyFactory.getProxy(bean.getClass().getClassLoader());
+  }
+
+  private final class LayerTimingInterceptor implements MethodInterceptor {
+
+    private final String layer;
+    private final String component;
+    private final Map<Method, Timer> successes = new ConcurrentHashMap<>();
+    private final Map<Method, Timer> errors = new ConcurrentHashMap<>();
+
+    private LayerTimingInterceptor(String layer, String component) {
+      this.layer = layer;
+      this.component = component;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+      Method method = invocation.getMethod();
+      if (method.getDeclaringClass() == Object.class) {
+        return invocation.proceed();
+      }
+
+      long start = System.nanoTime();
+      boolean failed = true;
+      try {
+        Object result = invocation.proceed();
+        failed = false;
+        return result;
+      } finally {
+        Timer timer = failed ? errors.computeIfAbsent(method, m -> timer(m, "error"))
+            : successes.computeIfAbsent(method, m -> timer(m, "success"));
+        timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+      }
+    }
+
+    private Timer timer(Method method, String outcome) {
+      return Timer.builder("planets.layer.calls")
+          .description("Calls into the Redis, Postgres, mapping and SWAPI layers")
+          .tag("layer", layer).tag("operation", component + "." + method.getName())
+          .tag("outcome", outcome).publishPercentileHistogram()
+          .minimumExpectedValue(Duration.ofNanos(10_000))
+          .maximumExpectedValue(Duration.ofSeconds(10)).register(meterRegistry.getObject());
+    }
+  }
+}
@@ -0,0 +1,30 @@
+package com.example.starwarsplanets.config;
+
+import java.time.Duration;
+import java.time.Instant;
+import org.springframework.boot.health.contributor.Health;
+import org.springframework.boot.health.contributor.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Out of service until the movie-appearance index has been loaded, from the snapshot or SWAPI.
+ * Part of the readiness group, so traffic is only routed once inserts can be enriched.
+ */
+@Component
+public class MovieAppearancesIndexHealthIndicator implements HealthIndicator {
+
+  private final CacheInitializer cacheInitializer;
+
+  public MovieAppearancesIndexHealthIndicator(CacheInitializer cacheInitializer) {
+    this.cacheInitializer = cacheInitializer;
+  }
+
+  @Override
+  public Health health() {
+    return cacheInitializer.getIndexedAt()
+        .map(indexedAt -> Health.up().withDetail("indexedAt", indexedAt.toString())
+            .withDetail("ageSeconds", Duration.between(indexedAt, Instant.now()).toSeconds())
+            .build())
+        .orElseGet(() -> Health.outOfService().withDetail("indexedAt", "never").build());
+  }
+}
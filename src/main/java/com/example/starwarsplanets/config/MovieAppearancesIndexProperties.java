@@ -0,0 +1,26 @@
+package com.example.starwarsplanets.config;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties(prefix = "planets.index")
+public record MovieAppearancesIndexProperties(
+    @DefaultValue("./data/movie-appearances.snapshot") Path snapshotPath,
+    @DefaultValue("5s") Duration maxStaleness, @DefaultValue Lookup lookup,
+    @DefaultValue Refresh refresh) {
+
+  /** On-demand SWAPI lookups for names missing from the index. */
+  public record Lookup(@DefaultValue("10m") Duration ttl, @DefaultValue("2s") Duration timeout,
+      @DefaultValue("10000") long maximumSize) {
+  }
+
+  /**
+   * Scheduled incremental refresh from SWAPI; {@code backfill} also rewrites stored planets whose
+   * count changed or is unknown.
+   */
+  public record Refresh(@DefaultValue("true") boolean enabled,
+      @DefaultValue("PT1H") Duration interval, @DefaultValue("true") boolean backfill) {
+  }
+}
@@ -0,0 +1,14 @@
+package com.example.starwarsplanets.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * {@code exactCount} restores a COUNT(*) per list page instead of the maintained counter, which
+ * is reconciled with the table every {@code countReconcileInterval}.
+ */
+@ConfigurationProperties(prefix = "planets.pagination")
+public record PaginationProperties(@DefaultValue("false") boolean exactCount,
+    @DefaultValue("PT5M") Duration countReconcileInterval) {
+}
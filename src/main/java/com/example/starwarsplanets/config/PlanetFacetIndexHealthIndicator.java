@@ -0,0 +1,31 @@
+package com.example.starwarsplanets.config;
+
+import java.time.Duration;
+import java.time.Instant;
+import org.springframework.boot.health.contributor.Health;
+import org.springframework.boot.health.contributor.HealthIndicator;
+import org.springframework.stereotype.Component;
+import com.example.starwarsplanets.service.PlanetFacetIndex;
+
+/**
+ * Out of service until the facet index has been built from the table. Part of the readiness
+ * group, so filtered listings and facet counts are not served from an empty index.
+ */
+@Component
+public class PlanetFacetIndexHealthIndicator implements HealthIndicator {
+
+  private final PlanetFacetIndex planetFacetIndex;
+
+  public PlanetFacetIndexHealthIndicator(PlanetFacetIndex planetFacetIndex) {
+    this.planetFacetIndex = planetFacetIndex;
+  }
+
+  @Override
+  public Health health() {
+    return planetFacetIndex.getBuiltAt()
+        .map(builtAt -> Health.up().withDetail("builtAt", builtAt.toString())
+            .withDetail("ageSeconds", Duration.between(builtAt, Instant.now()).toSeconds())
+            .build())
+        .orElseGet(() -> Health.outOfService().withDetail("builtAt", "never").build());
+  }
+}
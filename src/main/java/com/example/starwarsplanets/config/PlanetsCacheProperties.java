@@ -0,0 +1,18 @@
+package com.example.starwarsplanets.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * {@code negative-ttl} applies to cached "not found" lookups. It is short because another node can
+ * store one just after this node created the planet (see {@code TwoLevelCache}).
+ */
+@ConfigurationProperties(prefix = "planets.cache")
+public record PlanetsCacheProperties(@DefaultValue("10m") Duration ttl,
+    @DefaultValue("30s") Duration negativeTtl, @DefaultValue Local local,
+    @DefaultValue("planets:cache:invalidations") String invalidationChannel) {
+
+  public record Local(@DefaultValue("10000") long maximumSize, @DefaultValue("1m") Duration ttl) {
+  }
+}
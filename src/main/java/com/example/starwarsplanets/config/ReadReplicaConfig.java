@@ -0,0 +1,77 @@
+package com.example.starwarsplanets.config;
+
+import javax.sql.DataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.autoconfigure.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Sends read-only transactions ({@code @Transactional(readOnly = true)}) to a read replica when
+ * {@code planets.datasource.replica.url} is set. The application {@link DataSource} is a
+ * {@link LazyConnectionDataSourceProxy}: it fetches the physical connection at the first statement,
+ * once the transaction has marked the connection read-only, and then takes it from the
+ * {@link ReadReplicaDataSource} instead of the primary pool. Writes and statements outside a
+ * read-only transaction keep using the primary pool configured by {@code spring.datasource.*}.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(prefix = "planets.datasource.replica", name = "url")
+@EnableConfigurationProperties(ReadReplicaProperties.class)
+public class ReadReplicaConfig {
+
+  @Bean
+  @ConfigurationProperties("spring.datasource.hikari")
+  public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+    HikariDataSource dataSource =
+        properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    dataSource.setPoolName("primary");
+    return dataSource;
+  }
+
+  /**
+   * The replica pool is owned by this bean rather than registered on its own, so a replica outage
+   * shows as fallback to the primary instead of a DOWN datasource in {@code /actuator/health}.
+   */
+  @Bean
+  public ReadReplicaDataSource readReplicaDataSource(
+      @Qualifier("primaryDataSource") DataSource primaryDataSource,
+      DataSourceProperties primaryProperties, ReadReplicaProperties properties,
+      MeterRegistry meterRegistry) {
+    HikariConfig config = new HikariConfig();
+    config.setPoolName("replica");
+    config.setJdbcUrl(properties.url());
+    config.setUsername(properties.username() != null ? properties.username()
+        : primaryProperties.determineUsername());
+    config.setPassword(properties.password() != null ? properties.password()
+        : primaryProperties.determinePassword());
+    config.setMaximumPoolSize(properties.maximumPoolSize());
+    config.setMinimumIdle(properties.minimumIdle());
+    config.setConnectionTimeout(properties.connectionTimeout().toMillis());
+    config.setReadOnly(true);
+    // Start even when the replica is down; the health check routes around it.
+    config.setInitializationFailTimeout(-1);
+    config.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+
+    return new ReadReplicaDataSource(primaryDataSource, new HikariDataSource(config),
+        properties.maxLag(), properties.healthCheckInterval(), meterRegistry);
+  }
+
+  @Bean
+  @Primary
+  public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+      ReadReplicaDataSource readReplicaDataSource) {
+    LazyConnectionDataSourceProxy dataSource =
+        new LazyConnectionDataSourceProxy(primaryDataSource);
+    dataSource.setReadOnlyDataSource(readReplicaDataSource);
+    return dataSource;
+  }
+}
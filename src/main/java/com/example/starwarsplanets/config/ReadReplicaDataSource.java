@@ -0,0 +1,158 @@
+package com.example.starwarsplanets.config;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import javax.sql.DataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Connections for read-only transactions: from the replica while it is usable, otherwise from the
+ * primary. The replica is usable while the scheduled health check reaches it and its replay lag is
+ * at most {@code maxLag}; a failure to get a replica connection marks it unusable until the next
+ * check. A replica that has replayed everything it received counts as caught up even when the
+ * primary has been idle, and a server that is not in recovery (a standalone second instance) has
+ * no lag.
+ *
+ * <p>Exposes {@code planets.datasource.replica.lag}, {@code planets.datasource.replica.usable}
+ * and {@code planets.datasource.read-only.connections{target}}.
+ */
+public class ReadReplicaDataSource extends AbstractDataSource implements Closeable {
+
+  private static final Logger logger = LoggerFactory.getLogger(ReadReplicaDataSource.class);
+
+  private static final String LAG_SQL = """
+      SELECT CASE WHEN NOT pg_is_in_recovery()
+                    OR pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+             ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()), 0)
+             END""";
+
+  private final DataSource primary;
+  private final DataSource replica;
+  private final Duration maxLag;
+  private final Duration healthCheckInterval;
+  private final JdbcTemplate replicaJdbcTemplate;
+  private volatile boolean usable;
+  private volatile double lagSeconds = Double.NaN;
+
+  private final Counter replicaConnections;
+  private final Counter primaryConnections;
+
+  public ReadReplicaDataSource(DataSource primary, DataSource replica,
+      Duration maxLag, Duration healthCheckInterval, MeterRegistry meterRegistry) {
+    this.primary = primary;
+    this.replica = replica;
+    this.maxLag = maxLag;
+    this.healthCheckInterval = healthCheckInterval;
+    this.replicaJdbcTemplate = new JdbcTemplate(replica);
+    this.replicaJdbcTemplate.setQueryTimeout(
+        (int) Math.max(1, healthCheckInterval.toSeconds()));
+
+    Gauge.builder("planets.datasource.replica.lag", this, source -> source.lagSeconds)
+        .description("Replay lag of the read replica at the last health check").baseUnit("seconds")
+        .register(meterRegistry);
+    Gauge.builder("planets.datasource.replica.usable", this, source -> source.usable ? 1 : 0)
+        .description("Whether read-only transactions are sent to the replica")
+        .register(meterRegistry);
+    this.replicaConnections = connections(meterRegistry, "replica");
+    this.primaryConnections = connections(meterRegistry, "primary");
+  }
+
+  private static Counter connections(MeterRegistry meterRegistry, String target) {
+    return Counter.builder("planets.datasource.read-only.connections")
+        .description("Connections taken for read-only transactions").tag("target", target)
+        .register(meterRegistry);
+  }
+
+  @Override
+  public Connection getConnection() throws SQLException {
+    if (usable) {
+      try {
+        Connection connection = replica.getConnection();
+        replicaConnections.increment();
+        return connection;
+      } catch (SQLException ex) {
+        markUnusable("no connection: " + ex.getMessage());
+      }
+    }
+    primaryConnections.increment();
+    return primary.getConnection();
+  }
+
+  @Override
+  public Connection getConnection(String username, String password) throws SQLException {
+    if (usable) {
+      try {
+        Connection connection = replica.getConnection(username, password);
+        replicaConnections.increment();
+        return connection;
+      } catch (SQLException ex) {
+        markUnusable("no connection: " + ex.getMessage());
+      }
+    }
+    primaryConnections.increment();
+    return primary.getConnection(username, password);
+  }
+
+  @Scheduled(fixedDelayString = "${planets.datasource.replica.health-check-interval:PT2S}")
+  public void checkReplica() {
+    double lag;
+    try {
+      lag = queryLagSeconds();
+    } catch (DataAccessException ex) {
+      lagSeconds = Double.NaN;
+      markUnusable("health check failed: " + ex.getMessage());
+      return;
+    }
+    lagSeconds = lag;
+    if (lag > maxLag.toMillis() / 1000.0) {
+      markUnusable("replay lag %.1fs exceeds %s".formatted(lag, maxLag));
+    } else if (!usable) {
+      usable = true;
+      logger.info("Read replica is usable (replay lag {}s), routing read-only transactions to it",
+          lag);
+    }
+  }
+
+  double queryLagSeconds() {
+    Double lag = replicaJdbcTemplate.queryForObject(LAG_SQL, Double.class);
+    return lag != null ? lag : 0;
+  }
+
+  /**
+   * How far behind the primary a read-only transaction may be: the lag tolerated at the last check
+   * plus the time until the next one.
+   */
+  public Duration stalenessBound() {
+    return maxLag.plus(healthCheckInterval);
+  }
+
+  boolean isUsable() {
+    return usable;
+  }
+
+  private void markUnusable(String reason) {
+    if (usable) {
+      usable = false;
+      logger.warn("Read replica is not usable ({}), routing read-only transactions to the primary",
+          reason);
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (replica instanceof Closeable closeable) {
+      closeable.close();
+    }
+  }
+}
@@ -0,0 +1,18 @@
+package com.example.starwarsplanets.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Read replica for read-only transactions, enabled by setting {@code url}. The replica has its own
+ * pool, sized independently of {@code spring.datasource.hikari.*}; {@code username} and
+ * {@code password} default to the primary's. The replica is used while it answers the health
+ * check every {@code healthCheckInterval} with a replay lag of at most {@code maxLag}.
+ */
+@ConfigurationProperties(prefix = "planets.datasource.replica")
+public record ReadReplicaProperties(String url, String username, String password,
+    @DefaultValue("10") int maximumPoolSize, @DefaultValue("2") int minimumIdle,
+    @DefaultValue("1s") Duration connectionTimeout, @DefaultValue("5s") Duration maxLag,
+    @DefaultValue("2s") Duration healthCheckInterval) {
+}
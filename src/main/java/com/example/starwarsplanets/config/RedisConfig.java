@@ -1,20 +1,31 @@
 package com.example.starwarsplanets.config;
 
-import java.time.Duration;
-
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CachingConfigurer;
+import org.springframework.cache.interceptor.CacheErrorHandler;
+import org.springframework.cache.interceptor.LoggingCacheErrorHandler;
+import org.springframework.cache.support.NullValue;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.cache.RedisCacheWriter;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
-import org.springframework.data.redis.serializer.JacksonJsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import com.example.starwarsplanets.cache.CacheInvalidationBus;
+import com.example.starwarsplanets.cache.PlanetCacheValueSerializer;
+import com.example.starwarsplanets.cache.TwoLevelCacheManager;
+import io.micrometer.core.instrument.MeterRegistry;
 
 @Configuration
-public class RedisConfig {
+@EnableConfigurationProperties(PlanetsCacheProperties.class)
+public class RedisConfig implements CachingConfigurer {
 
   @Bean
   public RedisTemplate<String, Object> redisTemplate(RedisConnectionFactory connectionFactory) {
@@ -23,16 +34,60 @@ public class RedisConfig {
     template.setKeySerializer(new StringRedisSerializer());
     template.setValueSerializer(new StringRedisSerializer());
     template.setHashKeySerializer(new StringRedisSerializer());
+    template.setHashValueSerializer(new StringRedisSerializer());
     template.afterPropertiesSet();
     return template;
   }
 
   @Bean
-  public CacheManager cacheManager(RedisConnectionFactory connectionFactory) {
+  public CacheInvalidationBus cacheInvalidationBus(RedisTemplate<String, Object> redisTemplate,
+      PlanetsCacheProperties cacheProperties) {
+    return new CacheInvalidationBus(redisTemplate, cacheProperties.invalidationChannel());
+  }
+
+  @Bean
+  public RedisMessageListenerContainer cacheInvalidationListenerContainer(
+      RedisConnectionFactory connectionFactory, CacheInvalidationBus cacheInvalidationBus,
+      PlanetsCacheProperties cacheProperties) {
+    RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+    container.setConnectionFactory(connectionFactory);
+    container.addMessageListener(cacheInvalidationBus,
+        new ChannelTopic(cacheProperties.invalidationChannel()));
+    return container;
+  }
+
+  @Bean
+  public CacheManager cacheManager(RedisConnectionFactory connectionFactory,
+      CacheInvalidationBus cacheInvalidationBus, MeterRegistry meterRegistry,
+      PlanetsCacheProperties cacheProperties) {
     RedisCacheConfiguration config =
-        RedisCacheConfiguration.defaultCacheConfig().entryTtl(Duration.ofMinutes(10))
+        RedisCacheConfiguration.defaultCacheConfig().entryTtl(entryTtl(cacheProperties))
             .serializeValuesWith(RedisSerializationContext.SerializationPair
-                .fromSerializer(new JacksonJsonRedisSerializer<>(Object.class)));
-    return RedisCacheManager.builder(connectionFactory).cacheDefaults(config).build();
+                .fromSerializer(cacheValueSerializer()));
+    RedisCacheManager redisCacheManager =
+        RedisCacheManager.builder(connectionFactory).cacheDefaults(config).build();
+    redisCacheManager.afterPropertiesSet();
+    return new TwoLevelCacheManager(redisCacheManager, cacheInvalidationBus, meterRegistry,
+        cacheProperties.local());
+  }
+
+  /** Full TTL for planets, the shorter negative TTL for cached misses. */
+  static RedisCacheWriter.TtlFunction entryTtl(PlanetsCacheProperties cacheProperties) {
+    return (key, value) -> value == null || value instanceof NullValue
+        ? cacheProperties.negativeTtl() : cacheProperties.ttl();
+  }
+
+  /** Value serializer of the Redis cache tier; also exercised by the JMH benchmarks. */
+  public static RedisSerializer<Object> cacheValueSerializer() {
+    return new PlanetCacheValueSerializer();
+  }
+
+  /**
+   * A cache that cannot be read or written (Redis down, an entry in an unknown format) is logged
+   * and treated as a miss, so the request is served from the database instead of failing.
+   */
+  @Override
+  public CacheErrorHandler errorHandler() {
+    return new LoggingCacheErrorHandler();
   }
 }
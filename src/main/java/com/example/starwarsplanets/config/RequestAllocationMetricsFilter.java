@@ -0,0 +1,68 @@
+package com.example.starwarsplanets.config;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Records the heap bytes allocated by the request thread while handling each request, per route,
+ * as {@code http.server.requests.allocation}. Allocation made on other threads (async exports,
+ * SWAPI lookups) is not included. Compare the mean before and after a change to the read path.
+ * The summary of each route is built once and reused, so recording does not allocate a builder
+ * and tags on every request.
+ */
+@Component
+public class RequestAllocationMetricsFilter extends OncePerRequestFilter {
+
+  private final com.sun.management.ThreadMXBean threadMXBean;
+  private final MeterRegistry meterRegistry;
+  private final ConcurrentMap<String, ConcurrentMap<String, DistributionSummary>> summaries =
+      new ConcurrentHashMap<>();
+
+  public RequestAllocationMetricsFilter(MeterRegistry meterRegistry) {
+    this.meterRegistry = meterRegistry;
+    this.threadMXBean = ManagementFactory.getThreadMXBean()
+        instanceof com.sun.management.ThreadMXBean bean && bean.isThreadAllocatedMemorySupported()
+            ? bean : null;
+  }
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+      FilterChain filterChain) throws ServletException, IOException {
+    long before = threadMXBean != null ? threadMXBean.getCurrentThreadAllocatedBytes() : -1;
+    try {
+      filterChain.doFilter(request, response);
+    } finally {
+      // -1 when measurement is unavailable for the current thread.
+      if (before >= 0) {
+        long after = threadMXBean.getCurrentThreadAllocatedBytes();
+        if (after >= before) {
+          record(request, after - before);
+        }
+      }
+    }
+  }
+
+  private void record(HttpServletRequest request, long bytes) {
+    Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+    String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+    summaries.computeIfAbsent(request.getMethod(), method -> new ConcurrentHashMap<>())
+        .computeIfAbsent(uri, route -> summary(request.getMethod(), route)).record(bytes);
+  }
+
+  private DistributionSummary summary(String method, String uri) {
+    return DistributionSummary.builder("http.server.requests.allocation")
+        .description("Heap bytes allocated by the request thread per request").baseUnit("bytes")
+        .tag("method", method).tag("uri", uri).register(meterRegistry);
+  }
+}
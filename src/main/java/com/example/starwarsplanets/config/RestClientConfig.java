@@ -1,14 +1,37 @@
 package com.example.starwarsplanets.config;
 
+import java.net.http.HttpClient;
+import java.util.concurrent.Executors;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
+import org.springframework.boot.thread.Threading;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
 import org.springframework.web.client.RestClient;
 
 @Configuration
+@EnableConfigurationProperties(SwapiProperties.class)
 public class RestClientConfig {
 
     @Bean
     public RestClient.Builder restClientBuilder() {
         return RestClient.builder();
     }
+
+    @Bean
+    public RestClient swapiRestClient(RestClient.Builder restClientBuilder,
+            SwapiProperties swapiProperties, Environment environment) {
+        HttpClient.Builder httpClientBuilder =
+                HttpClient.newBuilder().connectTimeout(swapiProperties.connectTimeout());
+        if (Threading.VIRTUAL.isActive(environment)) {
+            httpClientBuilder.executor(Executors.newVirtualThreadPerTaskExecutor());
+        }
+        HttpClient httpClient = httpClientBuilder.build();
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(swapiProperties.requestTimeout());
+
+        return restClientBuilder.clone().baseUrl(swapiProperties.baseUrl())
+                .requestFactory(requestFactory).build();
+    }
 }
@@ -0,0 +1,12 @@
+package com.example.starwarsplanets.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties(prefix = "swapi")
+public record SwapiProperties(@DefaultValue("https://swapi.dev/api") String baseUrl,
+    @DefaultValue("4") int maxConcurrency, @DefaultValue("5s") Duration connectTimeout,
+    @DefaultValue("10s") Duration requestTimeout, @DefaultValue("3") int maxAttempts,
+    @DefaultValue("200ms") Duration retryBackoff) {
+}
@@ -0,0 +1,47 @@
+package com.example.starwarsplanets.controller;
+
+import java.io.InputStream;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import com.example.starwarsplanets.dto.ImportResultDTO;
+import com.example.starwarsplanets.error.ErrorResponse;
+import com.example.starwarsplanets.service.PlanetsImportService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+
+@RestController
+@RequestMapping("/v1/admin/")
+@Tag(name = "Admin", description = "Operational endpoints for seeding and maintenance")
+public class AdminController {
+
+  private final PlanetsImportService planetsImportService;
+
+  public AdminController(PlanetsImportService planetsImportService) {
+    this.planetsImportService = planetsImportService;
+  }
+
+  @PostMapping(value = "/planets/import",
+      consumes = {"text/csv", MediaType.APPLICATION_NDJSON_VALUE})
+  @Operation(summary = "Bulk import planets",
+      description = "Streams CSV (name,terrain,climate) or NDJSON planets into the database with PostgreSQL COPY. Existing names are updated; malformed or invalid rows are counted as rejected.")
+  @ApiResponses(value = {
+      @ApiResponse(responseCode = "200", description = "Import finished",
+          content = @Content(mediaType = "application/json",
+              schema = @Schema(implementation = ImportResultDTO.class))),
+      @ApiResponse(responseCode = "415", description = "Unsupported content type",
+          content = @Content(mediaType = "application/json",
+              schema = @Schema(implementation = ErrorResponse.class)))})
+  public ResponseEntity<ImportResultDTO> importPlanets(
+      @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType, InputStream body) {
+    return ResponseEntity.ok(planetsImportService.importPlanets(body, contentType));
+  }
+}
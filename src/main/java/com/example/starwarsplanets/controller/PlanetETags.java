@@ -0,0 +1,88 @@
+package com.example.starwarsplanets.controller;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import com.example.starwarsplanets.dto.ResponsePlanetDTO;
+
+/**
+ * Strong ETags for planet reads. A single planet is identified by its id and row version
+ * ({@code updatedAt}); a list either by the collection version and a digest of the request that
+ * selected the page, or, when that version is unavailable, by a digest of the page contents.
+ * Request parameters are only ever hashed, so the tag stays a valid quoted string whatever the
+ * client sent.
+ */
+final class PlanetETags {
+
+  private PlanetETags() {}
+
+  static Optional<String> of(ResponsePlanetDTO planet) {
+    if (planet.id() == null || planet.updatedAt() == null) {
+      return Optional.empty();
+    }
+    return Optional.of(quote(planet.id() + "-" + Long.toHexString(micros(planet.updatedAt()))));
+  }
+
+  /**
+   * Collections in {@code selection} should be sorted (as {@code TreeSet}s are), so that the same
+   * filter always produces the same tag.
+   */
+  static String ofCollection(long version, Object... selection) {
+    MessageDigest digest = sha256();
+    update(digest, selection);
+    return quote("v" + version + "-" + encode(digest));
+  }
+
+  static String ofContent(List<ResponsePlanetDTO> content, Object... selection) {
+    MessageDigest digest = sha256();
+    update(digest, selection);
+    for (ResponsePlanetDTO planet : content) {
+      digest.update(String.valueOf(planet.id()).getBytes(StandardCharsets.UTF_8));
+      digest.update(String.valueOf(planet.updatedAt()).getBytes(StandardCharsets.UTF_8));
+      digest.update((byte) 0);
+    }
+    return quote("h" + encode(digest));
+  }
+
+  private static void update(MessageDigest digest, Object[] selection) {
+    for (Object part : selection) {
+      if (part instanceof Collection<?> terms) {
+        for (Object term : terms) {
+          digest.update(String.valueOf(term).getBytes(StandardCharsets.UTF_8));
+          digest.update((byte) 1);
+        }
+      } else {
+        digest.update(String.valueOf(part).getBytes(StandardCharsets.UTF_8));
+      }
+      digest.update((byte) 0);
+    }
+  }
+
+  private static String encode(MessageDigest digest) {
+    byte[] hash = Arrays.copyOf(digest.digest(), 16);
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+  }
+
+  private static long micros(LocalDateTime dateTime) {
+    return dateTime.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + dateTime.getNano() / 1_000;
+  }
+
+  private static String quote(String tag) {
+    return "\"" + tag + "\"";
+  }
+
+  private static MessageDigest sha256() {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException ex) {
+      throw new IllegalStateException("SHA-256 is not available", ex);
+    }
+  }
+}
@@ -3,31 +3,50 @@ package com.example.starwarsplanets.controller;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import com.example.starwarsplanets.cache.PlanetsCollectionVersion;
 import com.example.starwarsplanets.dto.ResponsePlanetDTO;
 import com.example.starwarsplanets.dto.RequestPlanetDTO;
 import com.example.starwarsplanets.dto.PagedResponsePlanetDTO;
+import com.example.starwarsplanets.dto.CursorPagedResponsePlanetDTO;
+import com.example.starwarsplanets.dto.BatchResponsePlanetDTO;
+import com.example.starwarsplanets.service.PlanetFacetIndex;
+import com.example.starwarsplanets.service.PlanetsExportService;
+import com.example.starwarsplanets.service.PlanetsGroupCommitter;
+import com.example.starwarsplanets.service.PlanetsSearchService;
 import com.example.starwarsplanets.service.PlanetsService;
 import com.example.starwarsplanets.error.ErrorResponse;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import java.net.URI;
+import java.util.List;
 import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.Set;
 import java.util.UUID;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Pattern;
 import jakarta.validation.constraints.Size;
 
 @RestController
@@ -36,9 +55,22 @@ import jakarta.validation.constraints.Size;
 public class PlanetsController {
 
   private final PlanetsService planetsService;
+  private final PlanetsExportService planetsExportService;
+  private final PlanetsCollectionVersion collectionVersion;
+  private final PlanetsSearchService planetsSearchService;
+  private final PlanetsGroupCommitter planetsGroupCommitter;
+  private final PlanetFacetIndex planetFacetIndex;
 
-  public PlanetsController(PlanetsService planetsService) {
+  public PlanetsController(PlanetsService planetsService,
+      PlanetsExportService planetsExportService, PlanetsCollectionVersion collectionVersion,
+      PlanetsSearchService planetsSearchService, PlanetsGroupCommitter planetsGroupCommitter,
+      PlanetFacetIndex planetFacetIndex) {
     this.planetsService = planetsService;
+    this.planetsExportService = planetsExportService;
+    this.collectionVersion = collectionVersion;
+    this.planetsSearchService = planetsSearchService;
+    this.planetsGroupCommitter = planetsGroupCommitter;
+    this.planetFacetIndex = planetFacetIndex;
   }
 
   @PostMapping("/planets")
@@ -54,10 +86,30 @@ public class PlanetsController {
       @ApiResponse(responseCode = "409", description = "Planet name already exists",
           content = @Content(mediaType = "application/json",
               schema = @Schema(implementation = ErrorResponse.class)))})
-  public ResponseEntity<ResponsePlanetDTO> save(@Valid @RequestBody RequestPlanetDTO planet) {
-    ResponsePlanetDTO savedPlanet = planetsService.save(planet);
+  public ResponseEntity<?> save(@Valid @RequestBody RequestPlanetDTO planet,
+      HttpServletRequest request) {
+    Optional<ResponsePlanetDTO> savedPlanet = planetsGroupCommitter.save(planet);
+    if (savedPlanet.isEmpty()) {
+      return ResponseEntity.status(HttpStatus.CONFLICT)
+          .body(ErrorResponse.conflict(request.getRequestURI()));
+    }
     URI location = URI.create("/planets/");
-    return ResponseEntity.created(location).body(savedPlanet);
+    return ResponseEntity.created(location).body(savedPlanet.get());
+  }
+
+  @PostMapping("/planets/batch")
+  @Operation(summary = "Create planets in batch",
+      description = "Creates up to 500 planets in one request. Each item is validated and inserted independently; the response reports a status per item (201 created, 400 invalid, 409 name already exists).")
+  @ApiResponses(value = {
+      @ApiResponse(responseCode = "200", description = "Batch processed, see per-item results",
+          content = @Content(mediaType = "application/json",
+              schema = @Schema(implementation = BatchResponsePlanetDTO.class))),
+      @ApiResponse(responseCode = "400", description = "Batch is empty or too large",
+          content = @Content(mediaType = "application/json",
+              schema = @Schema(implementation = ErrorResponse.class)))})
+  public ResponseEntity<BatchResponsePlanetDTO> saveAll(@RequestBody @Size(min = 1, max = 500,
+      message = "Batch must contain between 1 and 500 planets") List<RequestPlanetDTO> planets) {
+    return ResponseEntity.ok(planetsService.saveAll(planets));
   }
 
   @DeleteMapping("/planets/{id}")
@@ -81,32 +133,125 @@ public class PlanetsController {
 
   @GetMapping("/planets")
   @Operation(summary = "Get all planets",
-      description = "Retrieves all planets with pagination support. Results are sorted by planet name in ascending order.")
+      description = "Retrieves all planets with pagination support. Results are sorted by planet name in ascending order. Optional terrain and climate filters (repeat the parameter or separate terms with commas) match any of the given terms, or all of them with match=all; terrain and climate filters are combined with AND. The response includes facet counts per terrain and climate over the selected planets. Responses carry an ETag; send it back in If-None-Match to get 304 while the collection is unchanged.")
   @ApiResponses(value = {
       @ApiResponse(responseCode = "200", description = "Planets retrieved successfully",
           content = @Content(mediaType = "application/json",
               schema = @Schema(implementation = PagedResponsePlanetDTO.class))),
-      @ApiResponse(responseCode = "400", description = "Invalid pagination parameters",
+      @ApiResponse(responseCode = "304", description = "Page unchanged since the given ETag",
+          content = @Content()),
+      @ApiResponse(responseCode = "400", description = "Invalid pagination or filter parameters",
           content = @Content(mediaType = "application/json",
               schema = @Schema(implementation = ErrorResponse.class)))})
   public ResponseEntity<PagedResponsePlanetDTO> getAll(
       @RequestParam(defaultValue = "0") @Parameter(description = "Zero-indexed page number",
           example = "0") int page,
       @RequestParam(defaultValue = "20") @Parameter(description = "Page size (1-100 items)",
-          example = "20") int size) {
+          example = "20") int size,
+      @RequestParam(required = false) @Parameter(description = "Terrain terms to filter by",
+          example = "desert") List<String> terrain,
+      @RequestParam(required = false) @Parameter(description = "Climate terms to filter by",
+          example = "arid") List<String> climate,
+      @RequestParam(defaultValue = "any") @Pattern(regexp = "any|all",
+          message = "match must be 'any' or 'all'") @Parameter(
+              description = "Whether a planet must have any or all of the terms of a filter",
+              example = "any") String match,
+      WebRequest webRequest) {
     int validPage = Math.max(0, page);
     int validSize = Math.clamp(size, 1, 100);
     Pageable pageable = PageRequest.of(validPage, validSize, Sort.by("name").ascending());
-    return ResponseEntity.ok(planetsService.getAll(pageable));
+    Set<String> terrains = PlanetFacetIndex.normalize(terrain != null ? terrain : List.of());
+    Set<String> climates = PlanetFacetIndex.normalize(climate != null ? climate : List.of());
+    boolean matchAll = "all".equals(match);
+    boolean filtered = !terrains.isEmpty() || !climates.isEmpty();
+
+    OptionalLong version = collectionVersion.current();
+    if (version.isPresent()) {
+      // Totals and facets come from this node's index, which may trail the shared version.
+      long indexed = planetFacetIndex.fingerprint();
+      String etag = filtered
+          ? PlanetETags.ofCollection(version.getAsLong(), "page", validPage, validSize, indexed,
+              terrains, climates, match)
+          : PlanetETags.ofCollection(version.getAsLong(), "page", validPage, validSize, indexed);
+      if (webRequest.checkNotModified(etag)) {
+        return null;
+      }
+      return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache())
+          .body(getAll(pageable, filtered, terrains, climates, matchAll));
+    }
+
+    PagedResponsePlanetDTO planets = getAll(pageable, filtered, terrains, climates, matchAll);
+    return ResponseEntity.ok()
+        .eTag(PlanetETags.ofContent(planets.getContent(), planets.getTotalElements(),
+            planets.getNumber(), planets.getSize(), planets.getFacets()))
+        .cacheControl(CacheControl.noCache()).body(planets);
+  }
+
+  private PagedResponsePlanetDTO getAll(Pageable pageable, boolean filtered, Set<String> terrains,
+      Set<String> climates, boolean matchAll) {
+    return filtered ? planetsService.getAll(pageable, terrains, climates, matchAll)
+        : planetsService.getAll(pageable);
+  }
+
+  @GetMapping(value = "/planets", params = "cursor")
+  @Operation(summary = "Get planets with cursor pagination",
+      description = "Keyset pagination sorted by planet name. Pass an empty cursor for the first page and the returned nextCursor for the following ones. No total count is computed. Supports If-None-Match like the paged listing.")
+  @ApiResponses(value = {
+      @ApiResponse(responseCode = "200", description = "Planets retrieved successfully",
+          content = @Content(mediaType = "application/json",
+              schema = @Schema(implementation = CursorPagedResponsePlanetDTO.class))),
+      @ApiResponse(responseCode = "304", description = "Page unchanged since the given ETag",
+          content = @Content()),
+      @ApiResponse(responseCode = "400", description = "Invalid cursor",
+          content = @Content(mediaType = "application/json",
+              schema = @Schema(implementation = ErrorResponse.class)))})
+  public ResponseEntity<CursorPagedResponsePlanetDTO> getAllByCursor(
+      @RequestParam(defaultValue = "") @Parameter(
+          description = "Opaque cursor returned as nextCursor by the previous page (empty for the first page)",
+          example = "") String cursor,
+      @RequestParam(defaultValue = "20") @Parameter(description = "Page size (1-100 items)",
+          example = "20") int size,
+      WebRequest webRequest) {
+    int validSize = Math.clamp(size, 1, 100);
+    // Rejects a malformed cursor with 400 before it can be answered with 304.
+    String after = PlanetsService.decodeCursor(cursor);
+
+    OptionalLong version = collectionVersion.current();
+    if (version.isPresent()) {
+      String etag = PlanetETags.ofCollection(version.getAsLong(), "cursor", after, validSize);
+      if (webRequest.checkNotModified(etag)) {
+        return null;
+      }
+      return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache())
+          .body(planetsService.getAllAfter(after, validSize));
+    }
+
+    CursorPagedResponsePlanetDTO planets = planetsService.getAllAfter(after, validSize);
+    return ResponseEntity.ok()
+        .eTag(PlanetETags.ofContent(planets.content(), after, validSize))
+        .cacheControl(CacheControl.noCache()).body(planets);
+  }
+
+  @GetMapping(value = "/planets/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+  @Operation(summary = "Export all planets",
+      description = "Streams every planet as newline-delimited JSON, sorted by name, straight from a database cursor.")
+  @ApiResponses(value = {@ApiResponse(responseCode = "200", description = "Planets streamed",
+      content = @Content(mediaType = MediaType.APPLICATION_NDJSON_VALUE,
+          schema = @Schema(implementation = ResponsePlanetDTO.class)))})
+  public ResponseEntity<StreamingResponseBody> export() {
+    StreamingResponseBody body = planetsExportService::exportAll;
+    return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
   }
 
   @GetMapping("/planets/search")
   @Operation(summary = "Search for a planet",
-      description = "Searches for a planet by either UUID or name. At least one parameter must be provided.")
+      description = "Searches for a planet by either UUID or name. At least one parameter must be provided. The ETag is derived from the planet's id and last update; a matching If-None-Match is answered with 304.")
   @ApiResponses(value = {
       @ApiResponse(responseCode = "200", description = "Planet found",
           content = @Content(mediaType = "application/json",
               schema = @Schema(implementation = ResponsePlanetDTO.class))),
+      @ApiResponse(responseCode = "304", description = "Planet unchanged since the given ETag",
+          content = @Content()),
       @ApiResponse(responseCode = "400", description = "Name parameter is empty",
           content = @Content(mediaType = "application/json",
               schema = @Schema(implementation = ErrorResponse.class))),
@@ -118,12 +263,58 @@ public class PlanetsController {
           example = "123e4567-e89b-12d3-a456-426614174000") UUID id,
       @RequestParam(required = false) @Size(min = 1, message = "Name must not be empty") @Parameter(
           description = "Name of the planet", example = "Tatooine") String name) {
-    if (id != null) {
-      Optional<ResponsePlanetDTO> planet = planetsService.getById(id);
-      return planet.map(ResponseEntity::ok).orElseGet(() -> ResponseEntity.notFound().build());
-    }
+    // Served from the planets cache when possible, so a revalidation usually costs no query.
+    Optional<ResponsePlanetDTO> planet =
+        id != null ? planetsService.getById(id) : planetsService.getByName(name);
+    return planet.map(PlanetsController::withETag)
+        .orElseGet(() -> ResponseEntity.notFound().build());
+  }
+
+  @GetMapping(value = "/planets/search", params = "prefix")
+  @Operation(summary = "Search planets by name prefix",
+      description = "Case-insensitive prefix match for autocomplete. An exact match comes first, then shorter names, then alphabetical order.")
+  @ApiResponses(value = {
+      @ApiResponse(responseCode = "200", description = "Matching planets (possibly none)",
+          content = @Content(mediaType = "application/json",
+              array = @ArraySchema(schema = @Schema(implementation = ResponsePlanetDTO.class)))),
+      @ApiResponse(responseCode = "400", description = "Prefix is blank",
+          content = @Content(mediaType = "application/json",
+              schema = @Schema(implementation = ErrorResponse.class)))})
+  public ResponseEntity<List<ResponsePlanetDTO>> searchByPrefix(
+      @RequestParam @NotBlank(message = "Prefix must not be blank") @Size(min = 1, max = 255,
+          message = "Prefix must have between 1 and 255 characters") @Parameter(
+              description = "Start of the planet name", example = "ta") String prefix,
+      @RequestParam(defaultValue = "10") @Parameter(description = "Maximum results (1-50)",
+          example = "10") int limit) {
+    return ResponseEntity.ok(planetsSearchService.searchByPrefix(prefix, limit));
+  }
+
+  @GetMapping(value = "/planets/search", params = {"q", "!prefix"})
+  @Operation(summary = "Fuzzy search planets by name",
+      description = "Typo-tolerant, case-insensitive match on trigram similarity. Prefix matches rank first, then by similarity.")
+  @ApiResponses(value = {
+      @ApiResponse(responseCode = "200", description = "Matching planets (possibly none)",
+          content = @Content(mediaType = "application/json",
+              array = @ArraySchema(schema = @Schema(implementation = ResponsePlanetDTO.class)))),
+      @ApiResponse(responseCode = "400", description = "Query is blank",
+          content = @Content(mediaType = "application/json",
+              schema = @Schema(implementation = ErrorResponse.class)))})
+  public ResponseEntity<List<ResponsePlanetDTO>> searchFuzzy(
+      @RequestParam @NotBlank(message = "Query must not be blank") @Size(min = 1, max = 255,
+          message = "Query must have between 1 and 255 characters") @Parameter(
+              description = "Approximate planet name", example = "tatoine") String q,
+      @RequestParam(defaultValue = "10") @Parameter(description = "Maximum results (1-50)",
+          example = "10") int limit) {
+    return ResponseEntity.ok(planetsSearchService.searchFuzzy(q, limit));
+  }
 
-    Optional<ResponsePlanetDTO> planet = planetsService.getByName(name);
-    return planet.map(ResponseEntity::ok).orElseGet(() -> ResponseEntity.notFound().build());
+  /**
+   * The 304 for a matching If-None-Match is produced when the ResponseEntity is handled, before
+   * the body is serialized.
+   */
+  private static ResponseEntity<ResponsePlanetDTO> withETag(ResponsePlanetDTO planet) {
+    ResponseEntity.BodyBuilder response = ResponseEntity.ok().cacheControl(CacheControl.noCache());
+    PlanetETags.of(planet).ifPresent(response::eTag);
+    return response.body(planet);
   }
 }
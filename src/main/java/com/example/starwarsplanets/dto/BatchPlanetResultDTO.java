@@ -0,0 +1,7 @@
+package com.example.starwarsplanets.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record BatchPlanetResultDTO(int index, int status, ResponsePlanetDTO planet, String error) {
+}
@@ -0,0 +1,7 @@
+package com.example.starwarsplanets.dto;
+
+import java.util.List;
+
+public record BatchResponsePlanetDTO(List<BatchPlanetResultDTO> results, int created,
+    int failed) {
+}
@@ -0,0 +1,9 @@
+package com.example.starwarsplanets.dto;
+
+import java.util.List;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record CursorPagedResponsePlanetDTO(List<ResponsePlanetDTO> content, int size,
+    String nextCursor, boolean last) {
+}
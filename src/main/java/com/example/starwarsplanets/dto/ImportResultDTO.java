@@ -0,0 +1,5 @@
+package com.example.starwarsplanets.dto;
+
+public record ImportResultDTO(long rowsRead, long rejected, long inserted, long updated,
+    long durationMillis, double rowsPerSecond) {
+}
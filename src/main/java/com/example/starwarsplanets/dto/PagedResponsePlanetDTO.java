@@ -1,6 +1,7 @@
 package com.example.starwarsplanets.dto;
 
 import java.util.List;
+import java.util.Map;
 import com.fasterxml.jackson.annotation.JsonInclude;
 
 @JsonInclude(JsonInclude.Include.NON_NULL)
@@ -13,6 +14,7 @@ public class PagedResponsePlanetDTO {
   private int number;
   private boolean first;
   private boolean last;
+  private Map<String, Map<String, Long>> facets;
 
   public PagedResponsePlanetDTO() {}
 
@@ -82,4 +84,13 @@ public class PagedResponsePlanetDTO {
   public void setLast(boolean last) {
     this.last = last;
   }
+
+  /** Counts per terrain and per climate term over the planets the listing selects. */
+  public Map<String, Map<String, Long>> getFacets() {
+    return facets;
+  }
+
+  public void setFacets(Map<String, Map<String, Long>> facets) {
+    this.facets = facets;
+  }
 }
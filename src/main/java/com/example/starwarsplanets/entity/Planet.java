@@ -91,8 +91,17 @@ public class Planet {
     this.terrain = terrain;
   }
 
+  public void setCreatedAt(LocalDateTime createdAt) {
+    this.createdAt = createdAt;
+  }
+
+  public void setUpdatedAt(LocalDateTime updatedAt) {
+    this.updatedAt = updatedAt;
+  }
+
+  /** {@code null} when the count could not be resolved; a later index refresh fills it in. */
   public void setMovieApppearances(String movieAppearances) {
-    this.movieAppearances = Integer.valueOf(movieAppearances);
+    this.movieAppearances = movieAppearances != null ? Integer.valueOf(movieAppearances) : null;
   }
 
   @Override
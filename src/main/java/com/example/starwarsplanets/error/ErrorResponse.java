@@ -4,4 +4,10 @@ import java.time.LocalDateTime;
 
 public record ErrorResponse(int status, String error, String message, String path,
         LocalDateTime timestamp) {
+
+    /** The 409 body for a planet name that is already taken. */
+    public static ErrorResponse conflict(String path) {
+        return new ErrorResponse(409, "Database Conflict",
+                "A resource with this name already exists", path, LocalDateTime.now());
+    }
 }
@@ -4,14 +4,21 @@ import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.http.ResponseEntity;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+import org.springframework.transaction.CannotCreateTransactionException;
 import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.web.HttpMediaTypeNotSupportedException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.validation.FieldError;
 import com.example.starwarsplanets.error.ErrorResponse;
+import org.springframework.web.method.annotation.HandlerMethodValidationException;
 import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
+import org.springframework.context.MessageSourceResolvable;
 import java.time.LocalDateTime;
 import java.util.Objects;
+import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -45,17 +52,29 @@ public class GlobalExceptionHandler {
     return ResponseEntity.badRequest().body(errorResponse);
   }
 
+  @ExceptionHandler(HandlerMethodValidationException.class)
+  public ResponseEntity<ErrorResponse> handleMethodValidationExceptions(
+      HandlerMethodValidationException ex, HttpServletRequest request) {
+
+    String message = ex.getAllErrors().stream().map(MessageSourceResolvable::getDefaultMessage)
+        .collect(Collectors.joining("; "));
+
+    logger.warn("Validation error: {}", message);
+
+    ErrorResponse errorResponse = new ErrorResponse(HttpStatus.BAD_REQUEST.value(),
+        "Validation Failed", message, request.getRequestURI(), LocalDateTime.now());
+
+    return ResponseEntity.badRequest().body(errorResponse);
+  }
+
   @ExceptionHandler(DataIntegrityViolationException.class)
   public ResponseEntity<ErrorResponse> handleDatabaseConflictExceptions(
       DataIntegrityViolationException ex, HttpServletRequest request) {
 
     logger.error("Database integrity violation", ex);
 
-    ErrorResponse errorResponse = new ErrorResponse(HttpStatus.CONFLICT.value(),
-        "Database Conflict", "A resource with this name already exists", request.getRequestURI(),
-        LocalDateTime.now());
-
-    return ResponseEntity.status(HttpStatus.CONFLICT).body(errorResponse);
+    return ResponseEntity.status(HttpStatus.CONFLICT)
+        .body(ErrorResponse.conflict(request.getRequestURI()));
   }
 
   @ExceptionHandler(MethodArgumentTypeMismatchException.class)
@@ -76,6 +95,50 @@ public class GlobalExceptionHandler {
     return ResponseEntity.badRequest().body(errorResponse);
   }
 
+  @ExceptionHandler(HttpMediaTypeNotSupportedException.class)
+  public ResponseEntity<ErrorResponse> handleMediaTypeNotSupportedException(
+      HttpMediaTypeNotSupportedException ex, HttpServletRequest request) {
+
+    logger.warn("Unsupported media type: {}", ex.getContentType());
+
+    ErrorResponse errorResponse = new ErrorResponse(HttpStatus.UNSUPPORTED_MEDIA_TYPE.value(),
+        "Unsupported Media Type", ex.getMessage(), request.getRequestURI(), LocalDateTime.now());
+
+    return ResponseEntity.status(HttpStatus.UNSUPPORTED_MEDIA_TYPE).body(errorResponse);
+  }
+
+  @ExceptionHandler(InvalidCursorException.class)
+  public ResponseEntity<ErrorResponse> handleInvalidCursorException(InvalidCursorException ex,
+      HttpServletRequest request) {
+
+    logger.warn("Invalid cursor: {}", ex.getMessage());
+
+    ErrorResponse errorResponse = new ErrorResponse(HttpStatus.BAD_REQUEST.value(),
+        "Invalid Cursor", ex.getMessage(), request.getRequestURI(), LocalDateTime.now());
+
+    return ResponseEntity.badRequest().body(errorResponse);
+  }
+
+  /**
+   * No JDBC connection became free within {@code spring.datasource.hikari.connection-timeout}.
+   * Rejecting the request keeps the queue in front of the pool short, most visibly with virtual
+   * threads, where no request thread pool bounds it.
+   */
+  @ExceptionHandler({CannotCreateTransactionException.class,
+      CannotGetJdbcConnectionException.class})
+  public ResponseEntity<ErrorResponse> handleConnectionUnavailableException(Exception ex,
+      HttpServletRequest request) {
+
+    logger.warn("No database connection available: {}", ex.getMessage());
+
+    ErrorResponse errorResponse = new ErrorResponse(HttpStatus.SERVICE_UNAVAILABLE.value(),
+        "Service Unavailable", "The service is overloaded, retry shortly",
+        request.getRequestURI(), LocalDateTime.now());
+
+    return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+        .header(HttpHeaders.RETRY_AFTER, "1").body(errorResponse);
+  }
+
   @ExceptionHandler(Exception.class)
   public ResponseEntity<ErrorResponse> handleGenericException(Exception ex,
       HttpServletRequest request) {
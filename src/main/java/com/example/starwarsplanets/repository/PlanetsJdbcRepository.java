@@ -0,0 +1,384 @@
+package com.example.starwarsplanets.repository;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TimeZone;
+import java.util.UUID;
+import java.util.function.Consumer;
+import javax.sql.DataSource;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.jdbc.support.SQLExceptionSubclassTranslator;
+import org.springframework.stereotype.Repository;
+import com.example.starwarsplanets.dto.ResponsePlanetDTO;
+import com.example.starwarsplanets.entity.Planet;
+
+/**
+ * Set-based writes that Hibernate cannot express efficiently: batched inserts that skip name
+ * conflicts row by row instead of failing the whole transaction, COPY-based bulk loads, and
+ * array-bound bulk updates.
+ */
+@Repository
+public class PlanetsJdbcRepository {
+
+  private static final String INSERT_IF_ABSENT_SQL = """
+      INSERT INTO planets (id, name, terrain, climate, movie_appearances, created_at, updated_at)
+      VALUES (?, ?, ?, ?, ?, ?, ?)
+      ON CONFLICT (name) DO NOTHING""";
+
+  private static final String INSERT_IF_ABSENT_RETURNING_SQL =
+      INSERT_IF_ABSENT_SQL + " RETURNING created_at, updated_at";
+
+  private static final String DELETE_RETURNING_SQL =
+      "DELETE FROM planets WHERE id = ? RETURNING name";
+
+  private static final String CREATE_STAGING_SQL = """
+      CREATE TEMP TABLE planets_import (
+          seq bigserial,
+          name character varying(255) NOT NULL,
+          terrain character varying(255) NOT NULL,
+          climate character varying(255) NOT NULL,
+          movie_appearances integer
+      ) ON COMMIT DROP""";
+
+  private static final String COPY_STAGING_SQL =
+      "COPY planets_import (name, terrain, climate, movie_appearances) FROM STDIN WITH (FORMAT csv)";
+
+  // Last occurrence of a name in the input wins; existing rows are updated in place.
+  private static final String MERGE_STAGING_SQL = """
+      INSERT INTO planets (id, name, terrain, climate, movie_appearances, created_at, updated_at)
+      SELECT gen_random_uuid(), name, terrain, climate, movie_appearances,
+             now() AT TIME ZONE 'UTC', now() AT TIME ZONE 'UTC'
+      FROM (SELECT DISTINCT ON (name) * FROM planets_import ORDER BY name, seq DESC) latest
+      ON CONFLICT ON CONSTRAINT planets_name_key DO UPDATE
+      SET terrain = EXCLUDED.terrain,
+          climate = EXCLUDED.climate,
+          movie_appearances = EXCLUDED.movie_appearances,
+          updated_at = EXCLUDED.updated_at
+      RETURNING (xmax = 0) AS inserted""";
+
+  // Only rows whose count actually differs are written, and their keys come back for eviction.
+  private static final String UPDATE_MOVIE_APPEARANCES_SQL = """
+      UPDATE planets p
+      SET movie_appearances = c.movie_appearances,
+          updated_at = now() AT TIME ZONE 'UTC'
+      FROM unnest(?::text[], ?::integer[]) AS c(name, movie_appearances)
+      WHERE p.name = c.name
+        AND p.movie_appearances IS DISTINCT FROM c.movie_appearances
+      RETURNING p.id, p.name""";
+
+  // Rows stored while SWAPI could not be reached; a known count never gets overwritten here.
+  private static final String FILL_UNKNOWN_MOVIE_APPEARANCES_SQL = """
+      UPDATE planets p
+      SET movie_appearances = c.movie_appearances,
+          updated_at = now() AT TIME ZONE 'UTC'
+      FROM unnest(?::text[], ?::integer[]) AS c(name, movie_appearances)
+      WHERE p.name = c.name
+        AND p.movie_appearances IS NULL
+      RETURNING p.id, p.name""";
+
+  private static final int UPDATE_CHUNK_SIZE = 1000;
+
+  private static final TimeZone UTC = TimeZone.getTimeZone(ZoneOffset.UTC);
+
+  private static final String SCAN_FACETS_SQL = "SELECT id, name, terrain, climate FROM planets";
+
+  private static final String FIND_FACETS_SQL =
+      SCAN_FACETS_SQL + " WHERE id = ANY(?::uuid[]) OR name = ANY(?::text[])";
+
+  // Ordered by the column collation, like the unfiltered listing.
+  private static final String FIND_PAGE_BY_IDS_SQL = """
+      SELECT id, name, terrain, climate, movie_appearances, created_at, updated_at
+      FROM planets
+      WHERE id = ANY(?::uuid[])
+      ORDER BY name
+      LIMIT ? OFFSET ?""";
+
+  private final JdbcTemplate jdbcTemplate;
+  private final int batchSize;
+
+  public PlanetsJdbcRepository(JdbcTemplate jdbcTemplate,
+      @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:20}") int batchSize) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.batchSize = batchSize;
+  }
+
+  /**
+   * Inserts the planets in JDBC batches. The returned array tells, per planet, whether the row was
+   * inserted ({@code true}) or skipped because the name already exists ({@code false}).
+   */
+  public boolean[] insertAllIfAbsent(List<Planet> planets) {
+    int[][] updateCounts = jdbcTemplate.batchUpdate(INSERT_IF_ABSENT_SQL, planets, batchSize,
+        PlanetsJdbcRepository::bindInsert);
+
+    boolean[] inserted = new boolean[planets.size()];
+    int index = 0;
+    for (int[] batch : updateCounts) {
+      for (int count : batch) {
+        // SUCCESS_NO_INFO (-2) only shows up with rewritten batches; treat it as inserted.
+        inserted[index++] = count != 0;
+      }
+    }
+    return inserted;
+  }
+
+  /**
+   * Opens a COPY into a transaction-scoped staging table. Must run inside a transaction; finish
+   * with {@link StagingCopy#close()} and then {@link #mergeStaging()}.
+   */
+  public StagingCopy openStagingCopy() {
+    jdbcTemplate.execute(CREATE_STAGING_SQL);
+    DataSource dataSource = jdbcTemplate.getDataSource();
+    Connection connection = DataSourceUtils.getConnection(dataSource);
+    try {
+      CopyIn copyIn =
+          connection.unwrap(PGConnection.class).getCopyAPI().copyIn(COPY_STAGING_SQL);
+      return new StagingCopy(copyIn, connection, dataSource);
+    } catch (SQLException ex) {
+      DataSourceUtils.releaseConnection(connection, dataSource);
+      throw translate("COPY planets_import", ex);
+    }
+  }
+
+  public MergeResult mergeStaging() {
+    return jdbcTemplate.query(MERGE_STAGING_SQL, rs -> {
+      long inserted = 0;
+      long updated = 0;
+      while (rs.next()) {
+        if (rs.getBoolean("inserted")) {
+          inserted++;
+        } else {
+          updated++;
+        }
+      }
+      return new MergeResult(inserted, updated);
+    });
+  }
+
+  /**
+   * Sets {@code movie_appearances} by planet name, one statement per chunk of
+   * {@value #UPDATE_CHUNK_SIZE} names. Returns the rows that changed.
+   */
+  public List<UpdatedPlanet> updateMovieAppearances(Map<String, Integer> appearancesByName) {
+    return updateByName(UPDATE_MOVIE_APPEARANCES_SQL, appearancesByName);
+  }
+
+  /**
+   * Sets {@code movie_appearances} by planet name only where it is unknown ({@code NULL}), as
+   * left by a create during a SWAPI outage. Returns the rows that changed.
+   */
+  public List<UpdatedPlanet> fillUnknownMovieAppearances(Map<String, Integer> appearancesByName) {
+    return updateByName(FILL_UNKNOWN_MOVIE_APPEARANCES_SQL, appearancesByName);
+  }
+
+  private List<UpdatedPlanet> updateByName(String sql, Map<String, Integer> appearancesByName) {
+    List<UpdatedPlanet> updated = new ArrayList<>();
+    List<Map.Entry<String, Integer>> entries = List.copyOf(appearancesByName.entrySet());
+    for (int from = 0; from < entries.size(); from += UPDATE_CHUNK_SIZE) {
+      List<Map.Entry<String, Integer>> chunk =
+          entries.subList(from, Math.min(entries.size(), from + UPDATE_CHUNK_SIZE));
+      String[] names = chunk.stream().map(Map.Entry::getKey).toArray(String[]::new);
+      Integer[] counts = chunk.stream().map(Map.Entry::getValue).toArray(Integer[]::new);
+
+      updated.addAll(jdbcTemplate.query(sql, ps -> {
+        ps.setArray(1, ps.getConnection().createArrayOf("text", names));
+        ps.setArray(2, ps.getConnection().createArrayOf("integer", counts));
+      }, (rs, rowNum) -> new UpdatedPlanet(rs.getObject("id", UUID.class), rs.getString("name"))));
+    }
+    return updated;
+  }
+
+  /**
+   * Inserts the planet unless the name is taken, in one statement. Returns {@code false} on a name
+   * conflict instead of raising a constraint violation. On success the planet's timestamps are
+   * replaced with the stored (microsecond) values, so the response matches later reads.
+   * Timestamps are bound and read in UTC, as Hibernate does with {@code hibernate.jdbc.time_zone}.
+   */
+  public boolean insertIfAbsent(Planet planet) {
+    List<Timestamp[]> stored = jdbcTemplate.query(INSERT_IF_ABSENT_RETURNING_SQL,
+        ps -> bindInsert(ps, planet),
+        (rs, rowNum) -> new Timestamp[] {rs.getTimestamp(1, utc()), rs.getTimestamp(2, utc())});
+    if (stored.isEmpty()) {
+      return false;
+    }
+    planet.setCreatedAt(stored.getFirst()[0].toLocalDateTime());
+    planet.setUpdatedAt(stored.getFirst()[1].toLocalDateTime());
+    return true;
+  }
+
+  /** Deletes the planet in one statement and returns its name, or empty if there was none. */
+  public Optional<String> deleteById(UUID id) {
+    return jdbcTemplate.query(DELETE_RETURNING_SQL, (rs, rowNum) -> rs.getString(1), id).stream()
+        .findFirst();
+  }
+
+  /** Reads id, name, terrain and climate of every planet as detached {@link Planet} instances. */
+  public void forEachPlanetFacets(Consumer<Planet> consumer) {
+    jdbcTemplate.query(SCAN_FACETS_SQL, rs -> {
+      consumer.accept(facets(rs));
+    });
+  }
+
+  /** Like {@link #forEachPlanetFacets(Consumer)}, for the planets with any of the ids or names. */
+  public void forEachPlanetFacets(Collection<UUID> ids, Collection<String> names,
+      Consumer<Planet> consumer) {
+    jdbcTemplate.query(FIND_FACETS_SQL, ps -> {
+      ps.setArray(1, ps.getConnection().createArrayOf("uuid", ids.toArray()));
+      ps.setArray(2, ps.getConnection().createArrayOf("text", names.toArray()));
+    }, rs -> {
+      consumer.accept(facets(rs));
+    });
+  }
+
+  /**
+   * One page of the planets with the given ids, in name order. Filtered listings take the
+   * matching ids from the facet index and leave ordering and paging to the database, so they
+   * sort the same way as the unfiltered listing.
+   */
+  public List<ResponsePlanetDTO> findPageByIdIn(Collection<UUID> ids, long offset, int limit) {
+    return jdbcTemplate.query(FIND_PAGE_BY_IDS_SQL, ps -> {
+      ps.setArray(1, ps.getConnection().createArrayOf("uuid", ids.toArray()));
+      ps.setInt(2, limit);
+      ps.setLong(3, offset);
+    }, (rs, rowNum) -> new ResponsePlanetDTO(rs.getObject("id", UUID.class).toString(),
+        rs.getString("name"), rs.getString("terrain"), rs.getString("climate"),
+        rs.getObject("movie_appearances", Integer.class),
+        rs.getTimestamp("created_at", utc()).toLocalDateTime(),
+        rs.getTimestamp("updated_at", utc()).toLocalDateTime()));
+  }
+
+  private static Planet facets(ResultSet rs) throws SQLException {
+    Planet planet = new Planet(rs.getString("name"), rs.getString("terrain"),
+        rs.getString("climate"));
+    planet.setId(rs.getObject("id", UUID.class));
+    return planet;
+  }
+
+  private static void bindInsert(PreparedStatement ps, Planet planet) throws SQLException {
+    ps.setObject(1, planet.getId());
+    ps.setString(2, planet.getName());
+    ps.setString(3, planet.getTerrain());
+    ps.setString(4, planet.getClimate());
+    if (planet.getMovieApppearances() != null) {
+      ps.setInt(5, planet.getMovieApppearances());
+    } else {
+      ps.setNull(5, Types.INTEGER);
+    }
+    ps.setTimestamp(6, Timestamp.valueOf(planet.getCreatedAt()), utc());
+    ps.setTimestamp(7, Timestamp.valueOf(planet.getUpdatedAt()), utc());
+  }
+
+  /** Calendars are mutable and the driver may modify them, so each call gets its own. */
+  private static Calendar utc() {
+    return Calendar.getInstance(UTC);
+  }
+
+  private static RuntimeException translate(String task, SQLException ex) {
+    RuntimeException translated = new SQLExceptionSubclassTranslator().translate(task, null, ex);
+    return translated != null ? translated : new IllegalStateException(task, ex);
+  }
+
+  public record MergeResult(long inserted, long updated) {
+  }
+
+  public record UpdatedPlanet(UUID id, String name) {
+  }
+
+  /**
+   * Buffers rows as CSV and hands them to the COPY stream in large chunks.
+   */
+  public static final class StagingCopy implements AutoCloseable {
+
+    private static final int FLUSH_THRESHOLD = 64 * 1024;
+
+    private final CopyIn copyIn;
+    private final Connection connection;
+    private final DataSource dataSource;
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(FLUSH_THRESHOLD * 2);
+    private final StringBuilder line = new StringBuilder(256);
+    private boolean failed;
+
+    private StagingCopy(CopyIn copyIn, Connection connection, DataSource dataSource) {
+      this.copyIn = copyIn;
+      this.connection = connection;
+      this.dataSource = dataSource;
+    }
+
+    public void write(Planet planet) {
+      line.setLength(0);
+      appendCsv(planet.getName()).append(',');
+      appendCsv(planet.getTerrain()).append(',');
+      appendCsv(planet.getClimate()).append(',');
+      if (planet.getMovieApppearances() != null) {
+        line.append(planet.getMovieApppearances());
+      }
+      line.append('\n');
+      buffer.writeBytes(line.toString().getBytes(StandardCharsets.UTF_8));
+
+      if (buffer.size() >= FLUSH_THRESHOLD) {
+        flush();
+      }
+    }
+
+    private StringBuilder appendCsv(String value) {
+      line.append('"');
+      for (int i = 0; i < value.length(); i++) {
+        char c = value.charAt(i);
+        if (c == '"') {
+          line.append('"');
+        }
+        line.append(c);
+      }
+      return line.append('"');
+    }
+
+    private void flush() {
+      try {
+        copyIn.writeToCopy(buffer.toByteArray(), 0, buffer.size());
+        buffer.reset();
+      } catch (SQLException ex) {
+        failed = true;
+        throw translate("COPY planets_import", ex);
+      }
+    }
+
+    /**
+     * Ends the COPY, or cancels it if a write failed or {@link #abort()} was called.
+     */
+    @Override
+    public void close() {
+      try {
+        if (failed) {
+          copyIn.cancelCopy();
+          return;
+        }
+        flush();
+        copyIn.endCopy();
+      } catch (SQLException ex) {
+        throw translate("COPY planets_import", ex);
+      } finally {
+        DataSourceUtils.releaseConnection(connection, dataSource);
+      }
+    }
+
+    public void abort() {
+      failed = true;
+    }
+  }
+}
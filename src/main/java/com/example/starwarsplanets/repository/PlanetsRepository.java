@@ -2,18 +2,58 @@ package com.example.starwarsplanets.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Repository;
+import com.example.starwarsplanets.dto.ResponsePlanetDTO;
 import com.example.starwarsplanets.entity.Planet;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import java.util.List;
 import java.util.UUID;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface PlanetsRepository extends JpaRepository<Planet, UUID> {
 
+  /**
+   * Constructor expression for the read path: rows are mapped straight into the response DTO, so
+   * no managed entities (and no dirty-checking snapshots) are created.
+   */
+  String AS_DTO = "new com.example.starwarsplanets.dto.ResponsePlanetDTO(CAST(p.id AS String),"
+      + " p.name, p.terrain, p.climate, p.movieAppearances, p.createdAt, p.updatedAt)";
+
   @Query("SELECT p FROM Planet p WHERE p.name = ?1")
   Optional<Planet> findByName(String name);
 
   Page<Planet> findAll(Pageable pageable);
+
+  @Query(value = "SELECT " + AS_DTO + " FROM Planet p",
+      countQuery = "SELECT count(p) FROM Planet p")
+  Page<ResponsePlanetDTO> findAllAsDTO(Pageable pageable);
+
+  /** Like {@link #findAllAsDTO} without the count query: fetches one extra row instead. */
+  @Query("SELECT " + AS_DTO + " FROM Planet p")
+  Slice<ResponsePlanetDTO> findSliceAsDTO(Pageable pageable);
+
+  @Query("SELECT " + AS_DTO + " FROM Planet p WHERE p.name > ?1 ORDER BY p.name")
+  List<ResponsePlanetDTO> findAsDTOByNameAfter(String name, Limit limit);
+
+  @Query("SELECT " + AS_DTO + " FROM Planet p WHERE p.id = ?1")
+  Optional<ResponsePlanetDTO> findAsDTOById(UUID id);
+
+  @Query("SELECT " + AS_DTO + " FROM Planet p WHERE p.name = ?1")
+  Optional<ResponsePlanetDTO> findAsDTOByName(String name);
+
+  /**
+   * Server-side cursor over the whole table, fetched {@code hibernate.jdbc.fetch_size} rows at a
+   * time. Must be consumed inside a transaction and closed afterwards.
+   */
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+  @Query("SELECT p FROM Planet p ORDER BY p.name")
+  Stream<Planet> streamAll();
 }
@@ -0,0 +1,87 @@
+package com.example.starwarsplanets.repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Locale;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import com.example.starwarsplanets.dto.ResponsePlanetDTO;
+
+/**
+ * Name search backed by the indexes of {@code init_scripts/002-create-search-indexes.sql}: a
+ * {@code text_pattern_ops} index on {@code lower(name)} for prefixes and a trigram index for
+ * typo-tolerant matching. Rows are mapped straight into the response DTO.
+ */
+@Repository
+public class PlanetsSearchRepository {
+
+  private static final String COLUMNS =
+      "id, name, terrain, climate, movie_appearances, created_at, updated_at";
+
+  // Exact match first, then shorter (closer) names, then alphabetically.
+  private static final String PREFIX_SQL = "SELECT " + COLUMNS + """
+       FROM planets
+      WHERE lower(name) LIKE ? ESCAPE '\\'
+      ORDER BY lower(name) = ? DESC, length(name), lower(name)
+      LIMIT ?""";
+
+  // Trigram similarity above pg_trgm.similarity_threshold (0.3 by default), or a plain prefix
+  // match so that queries too short for trigrams still find something.
+  private static final String FUZZY_SQL = "SELECT " + COLUMNS + """
+       FROM planets
+      WHERE lower(name) % ? OR lower(name) LIKE ? ESCAPE '\\'
+      ORDER BY lower(name) LIKE ? ESCAPE '\\' DESC, similarity(lower(name), ?) DESC,
+               lower(name)
+      LIMIT ?""";
+
+  private final JdbcTemplate jdbcTemplate;
+
+  public PlanetsSearchRepository(JdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  /**
+   * Matches names starting with {@code prefix}. A prefix that is blank once stripped would match
+   * every row, so it finds nothing.
+   */
+  public List<ResponsePlanetDTO> findByNamePrefix(String prefix, int limit) {
+    String normalized = normalize(prefix);
+    if (normalized.isEmpty()) {
+      return List.of();
+    }
+    return jdbcTemplate.query(PREFIX_SQL, PlanetsSearchRepository::toDTO,
+        escapeLike(normalized) + "%", normalized, limit);
+  }
+
+  /** Matches names similar to or starting with {@code query}; a blank query finds nothing. */
+  public List<ResponsePlanetDTO> findByNameSimilarTo(String query, int limit) {
+    String normalized = normalize(query);
+    if (normalized.isEmpty()) {
+      return List.of();
+    }
+    String prefixPattern = escapeLike(normalized) + "%";
+    return jdbcTemplate.query(FUZZY_SQL, PlanetsSearchRepository::toDTO, normalized,
+        prefixPattern, prefixPattern, normalized, limit);
+  }
+
+  static String normalize(String value) {
+    return value.strip().toLowerCase(Locale.ROOT);
+  }
+
+  static String escapeLike(String value) {
+    return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+  }
+
+  private static ResponsePlanetDTO toDTO(ResultSet rs, int rowNum) throws SQLException {
+    int appearances = rs.getInt("movie_appearances");
+    Integer movieAppearances = rs.wasNull() ? null : appearances;
+    Timestamp createdAt = rs.getTimestamp("created_at");
+    Timestamp updatedAt = rs.getTimestamp("updated_at");
+    return new ResponsePlanetDTO(rs.getString("id"), rs.getString("name"),
+        rs.getString("terrain"), rs.getString("climate"), movieAppearances,
+        createdAt != null ? createdAt.toLocalDateTime() : null,
+        updatedAt != null ? updatedAt.toLocalDateTime() : null);
+  }
+}
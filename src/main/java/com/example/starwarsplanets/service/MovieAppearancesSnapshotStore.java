@@ -0,0 +1,122 @@
+package com.example.starwarsplanets.service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import com.example.starwarsplanets.config.MovieAppearancesIndexProperties;
+
+/**
+ * Persists the last good movie-appearance index to a small binary file so the application can
+ * start without waiting for SWAPI. Layout (big-endian):
+ *
+ * <pre>
+ * int magic 'SWPA' | byte version | long savedAtEpochMillis | int entries
+ * entries x (short nameLength | nameLength bytes UTF-8 | int appearances)
+ * </pre>
+ */
+@Component
+public class MovieAppearancesSnapshotStore {
+
+  private static final Logger logger = LoggerFactory.getLogger(MovieAppearancesSnapshotStore.class);
+  private static final int MAGIC = 0x53575041;
+  private static final byte VERSION = 1;
+
+  private final Path snapshotPath;
+
+  public MovieAppearancesSnapshotStore(MovieAppearancesIndexProperties indexProperties) {
+    this.snapshotPath = indexProperties.snapshotPath();
+  }
+
+  public record Snapshot(Instant savedAt, Map<String, String> appearances) {
+  }
+
+  public Optional<Snapshot> load() {
+    if (!Files.isRegularFile(snapshotPath)) {
+      return Optional.empty();
+    }
+
+    try (FileChannel channel = FileChannel.open(snapshotPath, StandardOpenOption.READ)) {
+      MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      if (buffer.getInt() != MAGIC || buffer.get() != VERSION) {
+        logger.warn("Ignoring movie appearances snapshot {}: unknown format", snapshotPath);
+        return Optional.empty();
+      }
+
+      Instant savedAt = Instant.ofEpochMilli(buffer.getLong());
+      int entries = buffer.getInt();
+      // Each entry takes at least six bytes; a larger count means the file is truncated or corrupt.
+      if (entries < 0 || entries > buffer.remaining() / 6) {
+        logger.warn("Ignoring movie appearances snapshot {}: bad entry count {}", snapshotPath,
+            entries);
+        return Optional.empty();
+      }
+      Map<String, String> appearances = HashMap.newHashMap(entries);
+      for (int i = 0; i < entries; i++) {
+        byte[] name = new byte[Short.toUnsignedInt(buffer.getShort())];
+        buffer.get(name);
+        appearances.put(new String(name, StandardCharsets.UTF_8), String.valueOf(buffer.getInt()));
+      }
+      return Optional.of(new Snapshot(savedAt, appearances));
+    } catch (IOException | BufferUnderflowException | IllegalArgumentException ex) {
+      logger.warn("Could not read movie appearances snapshot {}", snapshotPath, ex);
+      return Optional.empty();
+    }
+  }
+
+  /**
+   * Writes to a temporary file, forces it to disk and moves it into place, so readers never see a
+   * partial snapshot, even after a crash. The temporary file is removed if any step fails.
+   */
+  public void save(Map<String, String> appearances) {
+    try {
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream(appearances.size() * 24 + 17);
+      try (DataOutputStream out = new DataOutputStream(bytes)) {
+        out.writeInt(MAGIC);
+        out.writeByte(VERSION);
+        out.writeLong(Instant.now().toEpochMilli());
+        out.writeInt(appearances.size());
+        for (Map.Entry<String, String> entry : appearances.entrySet()) {
+          byte[] name = entry.getKey().getBytes(StandardCharsets.UTF_8);
+          out.writeShort(name.length);
+          out.write(name);
+          out.writeInt(Integer.parseInt(entry.getValue()));
+        }
+      }
+
+      Path directory = snapshotPath.toAbsolutePath().getParent();
+      Files.createDirectories(directory);
+      Path temporary = Files.createTempFile(directory, "movie-appearances", ".tmp");
+      try {
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+          ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+          while (buffer.hasRemaining()) {
+            channel.write(buffer);
+          }
+          channel.force(true);
+        }
+        Files.move(temporary, snapshotPath, StandardCopyOption.REPLACE_EXISTING,
+            StandardCopyOption.ATOMIC_MOVE);
+      } finally {
+        Files.deleteIfExists(temporary);
+      }
+    } catch (IOException ex) {
+      logger.warn("Could not write movie appearances snapshot {}", snapshotPath, ex);
+    }
+  }
+}
@@ -0,0 +1,466 @@
+package com.example.starwarsplanets.service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import org.roaringbitmap.RoaringBitmap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import com.example.starwarsplanets.cache.CacheInvalidationBus;
+import com.example.starwarsplanets.cache.PlanetsCacheEvictor;
+import com.example.starwarsplanets.config.PlanetFacetIndexHealthIndicator;
+import com.example.starwarsplanets.entity.Planet;
+import com.example.starwarsplanets.repository.PlanetsJdbcRepository;
+
+/**
+ * In-memory terrain/climate index for filtered listings and facet counts. Every planet gets a
+ * dense ordinal; every distinct terrain and climate term (the comma-separated parts of the column,
+ * lower-cased) gets a dictionary code and a compressed bitmap of the ordinals that carry it.
+ * Filtering is bitmap AND/OR, and facet counts are AND cardinalities, so neither touches the
+ * database.
+ *
+ * <p>Built in the background at startup, so startup does not wait for the table scan; until then
+ * {@link PlanetFacetIndexHealthIndicator} keeps the node out of the readiness group. Updated after
+ * commit by the writes of this node. Writes made by other
+ * nodes arrive as evictions of the planets cache on the {@link CacheInvalidationBus}; the evicted
+ * ids and names are re-read from the table in the background and patched in. A full rebuild every
+ * {@code planets.facets.rebuild-interval} repairs anything a lost message missed. Writes applied
+ * while a rebuild scans the table are replayed onto the rebuilt index before it is swapped in.
+ * Ordinals of deleted planets are not reused until the next rebuild.
+ *
+ * <p>{@link #fingerprint()} changes whenever the indexed content does and is the same on nodes
+ * whose indexes agree, so responses built from the index can carry it in their ETag. The facet
+ * counts over all planets are computed once per fingerprint.
+ */
+@Component
+public class PlanetFacetIndex implements SmartInitializingSingleton, CacheInvalidationBus.Listener {
+
+  public static final String TERRAIN = "terrain";
+  public static final String CLIMATE = "climate";
+
+  private static final Logger logger = LoggerFactory.getLogger(PlanetFacetIndex.class);
+
+  private final PlanetsJdbcRepository planetsJdbcRepository;
+  private final CacheInvalidationBus invalidationBus;
+  private final TaskExecutor taskExecutor;
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+  private final Lock rebuildLock = new ReentrantLock();
+  private final Set<String> pendingKeys = ConcurrentHashMap.newKeySet();
+  private final AtomicBoolean reloading = new AtomicBoolean();
+  private State state = new State();
+  // Writes applied while a rebuild scans the table; guarded by the write lock.
+  private List<Consumer<State>> journal;
+  private volatile Instant builtAt;
+  private volatile AllFacets allFacets;
+
+  public PlanetFacetIndex(PlanetsJdbcRepository planetsJdbcRepository,
+      CacheInvalidationBus invalidationBus,
+      @Qualifier("applicationTaskExecutor") TaskExecutor taskExecutor) {
+    this.planetsJdbcRepository = planetsJdbcRepository;
+    this.invalidationBus = invalidationBus;
+    this.taskExecutor = taskExecutor;
+  }
+
+  /** Planets matching a facet query: every matching id, in no order, total and facet counts. */
+  public record Result(List<UUID> ids, long total, Map<String, Map<String, Long>> facets) {
+  }
+
+  private record AllFacets(long fingerprint, Map<String, Map<String, Long>> facets) {
+  }
+
+  @Override
+  public void afterSingletonsInstantiated() {
+    invalidationBus.addListener(PlanetsCacheEvictor.CACHE_NAME, this);
+    taskExecutor.execute(() -> {
+      try {
+        rebuild();
+      } catch (RuntimeException ex) {
+        logger.warn("Could not build the planet facet index, retrying on the next scheduled "
+            + "rebuild: {}", ex.getMessage());
+      }
+    });
+  }
+
+  @Scheduled(initialDelayString = "${planets.facets.rebuild-interval:PT5M}",
+      fixedDelayString = "${planets.facets.rebuild-interval:PT5M}")
+  public void rebuild() {
+    rebuildLock.lock();
+    try {
+      withWriteLock(() -> journal = new ArrayList<>());
+      State rebuilt = new State();
+      try {
+        planetsJdbcRepository.forEachPlanetFacets(rebuilt::put);
+        rebuilt.optimize();
+      } catch (RuntimeException ex) {
+        withWriteLock(() -> journal = null);
+        throw ex;
+      }
+      withWriteLock(() -> {
+        journal.forEach(change -> change.accept(rebuilt));
+        journal = null;
+        state = rebuilt;
+      });
+      builtAt = Instant.now();
+      logger.info("Built planet facet index: {} planets, {} terrains, {} climates",
+          rebuilt.live.getCardinality(), rebuilt.terrains.terms.size(),
+          rebuilt.climates.terms.size());
+    } finally {
+      rebuildLock.unlock();
+    }
+  }
+
+  public void putAfterCommit(Collection<Planet> planets) {
+    afterCommit(() -> write(current -> planets.forEach(current::put)));
+  }
+
+  public void removeAfterCommit(UUID id) {
+    afterCommit(() -> write(current -> current.remove(id)));
+  }
+
+  /** For bulk writes (imports) where applying every row on its own would cost more. */
+  public void rebuildAfterCommit() {
+    afterCommit(this::rebuild);
+  }
+
+  /** Another node wrote the planet with this id or name; re-read it in the background. */
+  @Override
+  public void evicted(String key) {
+    pendingKeys.add(key);
+    if (reloading.compareAndSet(false, true)) {
+      taskExecutor.execute(this::reloadPending);
+    }
+  }
+
+  /** Another node cleared the planets cache (a bulk import); rebuild in the background. */
+  @Override
+  public void cleared() {
+    taskExecutor.execute(this::rebuild);
+  }
+
+  /** When the index was last built from the table; empty until the first build completes. */
+  public Optional<Instant> getBuiltAt() {
+    return Optional.ofNullable(builtAt);
+  }
+
+  /** Changes whenever the indexed content does; equal on nodes whose indexes agree. */
+  public long fingerprint() {
+    lock.readLock().lock();
+    try {
+      return state.fingerprint;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Within a facet the requested terms are OR-ed, or AND-ed when {@code matchAll}; the terrain and
+   * climate conditions are always AND-ed. An empty term set leaves that facet unconstrained. Facet
+   * counts are taken over the matching planets.
+   */
+  public Result query(Set<String> terrains, Set<String> climates, boolean matchAll) {
+    lock.readLock().lock();
+    try {
+      RoaringBitmap matches = state.live.clone();
+      if (!terrains.isEmpty()) {
+        matches.and(state.terrains.match(terrains, matchAll));
+      }
+      if (!climates.isEmpty()) {
+        matches.and(state.climates.match(climates, matchAll));
+      }
+      return new Result(state.ids(matches), matches.getLongCardinality(), state.facets(matches));
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /** Facet counts over all planets, recomputed only after the indexed content changed. */
+  public Map<String, Map<String, Long>> facets() {
+    lock.readLock().lock();
+    try {
+      AllFacets cached = allFacets;
+      if (cached == null || cached.fingerprint() != state.fingerprint) {
+        cached = new AllFacets(state.fingerprint,
+            Collections.unmodifiableMap(state.facets(state.live)));
+        allFacets = cached;
+      }
+      return cached.facets();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  private void write(Consumer<State> change) {
+    withWriteLock(() -> {
+      change.accept(state);
+      if (journal != null) {
+        journal.add(change);
+      }
+    });
+  }
+
+  private void withWriteLock(Runnable action) {
+    lock.writeLock().lock();
+    try {
+      action.run();
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Re-reads the planets behind the pending keys in one query. Keys are ids or names; one that no
+   * longer matches a row is removed from the index. Failures are left to the next rebuild.
+   */
+  private void reloadPending() {
+    try {
+      while (!pendingKeys.isEmpty()) {
+        List<String> keys = new ArrayList<>(pendingKeys);
+        pendingKeys.removeAll(keys);
+        reload(keys);
+      }
+    } catch (RuntimeException ex) {
+      logger.warn("Could not apply remote planet changes to the facet index: {}",
+          ex.getMessage());
+    } finally {
+      reloading.set(false);
+    }
+    if (!pendingKeys.isEmpty() && reloading.compareAndSet(false, true)) {
+      taskExecutor.execute(this::reloadPending);
+    }
+  }
+
+  private void reload(List<String> keys) {
+    List<UUID> ids = new ArrayList<>();
+    List<String> names = new ArrayList<>();
+    for (String key : keys) {
+      UUID id = parseId(key);
+      if (id != null) {
+        ids.add(id);
+      } else {
+        names.add(key);
+      }
+    }
+
+    List<Planet> found = new ArrayList<>();
+    planetsJdbcRepository.forEachPlanetFacets(ids, names, found::add);
+    write(current -> {
+      ids.forEach(current::remove);
+      names.forEach(current::removeByName);
+      found.forEach(current::put);
+    });
+  }
+
+  private static UUID parseId(String key) {
+    try {
+      UUID id = UUID.fromString(key);
+      // A name that merely parses as a UUID is still a name.
+      return id.toString().equals(key) ? id : null;
+    } catch (IllegalArgumentException ex) {
+      return null;
+    }
+  }
+
+  private static void afterCommit(Runnable action) {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCommit() {
+          action.run();
+        }
+      });
+    } else {
+      action.run();
+    }
+  }
+
+  /**
+   * Splits comma-separated terms and lower-cases them the way the index stores them. The result is
+   * sorted, so the same filter always yields the same set, whatever order the terms came in.
+   */
+  public static Set<String> normalize(Collection<String> terms) {
+    Set<String> normalized = new TreeSet<>();
+    for (String term : terms) {
+      for (String part : term.split(",")) {
+        String value = part.strip().toLowerCase(Locale.ROOT);
+        if (!value.isEmpty()) {
+          normalized.add(value);
+        }
+      }
+    }
+    return normalized;
+  }
+
+  private record Entry(UUID id, String name, int[] terrains, int[] climates, long hash) {
+  }
+
+  private static final class State {
+
+    private final List<Entry> entries = new ArrayList<>();
+    private final Map<UUID, Integer> ordinals = new HashMap<>();
+    private final Map<String, Integer> byName = new HashMap<>();
+    private final RoaringBitmap live = new RoaringBitmap();
+    private final Dictionary terrains = new Dictionary();
+    private final Dictionary climates = new Dictionary();
+    // Sum of the live entries' hashes, so it does not depend on the order of the writes.
+    private long fingerprint;
+
+    private void put(Planet planet) {
+      remove(planet.getId());
+      removeByName(planet.getName());
+      int ordinal = entries.size();
+      Entry entry = new Entry(planet.getId(), planet.getName(),
+          terrains.encode(planet.getTerrain()), climates.encode(planet.getClimate()),
+          hash(planet));
+      entries.add(entry);
+      fingerprint += entry.hash();
+      ordinals.put(entry.id(), ordinal);
+      byName.put(entry.name(), ordinal);
+      live.add(ordinal);
+      terrains.add(entry.terrains(), ordinal);
+      climates.add(entry.climates(), ordinal);
+    }
+
+    private void remove(UUID id) {
+      Integer ordinal = ordinals.remove(id);
+      if (ordinal == null) {
+        return;
+      }
+      Entry entry = entries.set(ordinal, null);
+      byName.remove(entry.name(), ordinal);
+      live.remove(ordinal);
+      terrains.remove(entry.terrains(), ordinal);
+      climates.remove(entry.climates(), ordinal);
+      fingerprint -= entry.hash();
+    }
+
+    private void removeByName(String name) {
+      Integer ordinal = byName.get(name);
+      if (ordinal != null) {
+        remove(entries.get(ordinal).id());
+      }
+    }
+
+    private static long hash(Planet planet) {
+      long hash = planet.getId().getMostSignificantBits() * 31
+          + planet.getId().getLeastSignificantBits();
+      hash = hash * 31 + planet.getName().hashCode();
+      hash = hash * 31 + normalize(nonNull(planet.getTerrain())).hashCode();
+      hash = hash * 31 + normalize(nonNull(planet.getClimate())).hashCode();
+      // SplitMix64 finalizer, so that summing the hashes does not cancel out similar entries.
+      hash = (hash ^ (hash >>> 30)) * 0xbf58476d1ce4e5b9L;
+      hash = (hash ^ (hash >>> 27)) * 0x94d049bb133111ebL;
+      return hash ^ (hash >>> 31);
+    }
+
+    private static List<String> nonNull(String column) {
+      return column != null ? List.of(column) : List.of();
+    }
+
+    private void optimize() {
+      live.runOptimize();
+      terrains.bitmaps.forEach(RoaringBitmap::runOptimize);
+      climates.bitmaps.forEach(RoaringBitmap::runOptimize);
+    }
+
+    private List<UUID> ids(RoaringBitmap matches) {
+      List<UUID> ids = new ArrayList<>(matches.getCardinality());
+      matches.forEach((int ordinal) -> ids.add(entries.get(ordinal).id()));
+      return ids;
+    }
+
+    private Map<String, Map<String, Long>> facets(RoaringBitmap within) {
+      Map<String, Map<String, Long>> facets = new LinkedHashMap<>();
+      facets.put(TERRAIN, terrains.counts(within));
+      facets.put(CLIMATE, climates.counts(within));
+      return facets;
+    }
+  }
+
+  private static final class Dictionary {
+
+    private static final int[] NONE = new int[0];
+
+    private final Map<String, Integer> codes = new HashMap<>();
+    private final List<String> terms = new ArrayList<>();
+    private final List<RoaringBitmap> bitmaps = new ArrayList<>();
+
+    private int[] encode(String column) {
+      if (column == null || column.isBlank()) {
+        return NONE;
+      }
+      return normalize(List.of(column)).stream().mapToInt(term -> codes.computeIfAbsent(term, t -> {
+        terms.add(t);
+        bitmaps.add(new RoaringBitmap());
+        return terms.size() - 1;
+      })).toArray();
+    }
+
+    private void add(int[] termCodes, int ordinal) {
+      for (int code : termCodes) {
+        bitmaps.get(code).add(ordinal);
+      }
+    }
+
+    private void remove(int[] termCodes, int ordinal) {
+      for (int code : termCodes) {
+        bitmaps.get(code).remove(ordinal);
+      }
+    }
+
+    private RoaringBitmap match(Set<String> requested, boolean all) {
+      RoaringBitmap result = null;
+      for (String term : requested) {
+        Integer code = codes.get(term);
+        RoaringBitmap bitmap = code != null ? bitmaps.get(code) : new RoaringBitmap();
+        if (result == null) {
+          result = bitmap.clone();
+        } else if (all) {
+          result.and(bitmap);
+        } else {
+          result.or(bitmap);
+        }
+      }
+      return result != null ? result : new RoaringBitmap();
+    }
+
+    /** Non-zero counts per term, most frequent first. */
+    private Map<String, Long> counts(RoaringBitmap within) {
+      List<Map.Entry<String, Long>> counts = new ArrayList<>();
+      for (int code = 0; code < terms.size(); code++) {
+        long count = RoaringBitmap.andCardinality(bitmaps.get(code), within);
+        if (count > 0) {
+          counts.add(Map.entry(terms.get(code), count));
+        }
+      }
+      counts.sort(Map.Entry.<String, Long>comparingByValue().reversed()
+          .thenComparing(Map.Entry.comparingByKey()));
+      Map<String, Long> result = new LinkedHashMap<>();
+      counts.forEach(count -> result.put(count.getKey(), count.getValue()));
+      return result;
+    }
+  }
+}
@@ -1,28 +1,318 @@
 package com.example.starwarsplanets.service;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
 import org.springframework.stereotype.Service;
+import com.example.starwarsplanets.config.MovieAppearancesIndexProperties;
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 
+/**
+ * Movie-appearance index. The shared copy lives in one Redis hash, replaced atomically by building
+ * a staging hash and renaming it over the live key while bumping a version counter. Lookups are
+ * served from an immutable in-process snapshot. At most once per
+ * {@code planets.index.max-staleness}, a single caller compares the Redis version with the local
+ * one and reloads the hash if it moved.
+ *
+ * <p>
+ * Names missing from the index (planets SWAPI added after the last refresh) are looked up on
+ * demand with SWAPI's search. Concurrent lookups for the same name share one in-flight call, and
+ * the outcome, including "not found", is cached for {@code planets.index.lookup.ttl}. A lookup
+ * that fails or times out is not an answer: it resolves to {@code null} (unknown), which is stored
+ * as such and filled in by the next index refresh.
+ */
 @Service
 public class PlanetsCacheService {
 
+    public static final String INDEX_KEY = "swapi:movie-appearances";
+    public static final String VERSION_KEY = INDEX_KEY + ":version";
+
+    private static final Logger logger = LoggerFactory.getLogger(PlanetsCacheService.class);
+    private static final String STAGING_KEY_PREFIX = INDEX_KEY + ":staging:";
+    private static final int HSET_CHUNK_SIZE = 500;
+    private static final RedisScript<Long> SWAP_SCRIPT = new DefaultRedisScript<>("""
+            redis.call('RENAME', KEYS[1], KEYS[2])
+            return redis.call('INCR', KEYS[3])""", Long.class);
+    // ARGV: expected version, number of fields to set, the field/value pairs, then fields to delete.
+    private static final RedisScript<Long> APPLY_CHANGES_SCRIPT = new DefaultRedisScript<>("""
+            if redis.call('GET', KEYS[2]) ~= ARGV[1] then
+              return -1
+            end
+            local sets = tonumber(ARGV[2])
+            for i = 0, sets - 1 do
+              redis.call('HSET', KEYS[1], ARGV[3 + 2 * i], ARGV[4 + 2 * i])
+            end
+            for i = 3 + 2 * sets, #ARGV do
+              redis.call('HDEL', KEYS[1], ARGV[i])
+            end
+            return redis.call('INCR', KEYS[2])""", Long.class);
+
     private final RedisTemplate<String, Object> redisTemplate;
+    private final long maxStalenessNanos;
+    private final AtomicBoolean checkingVersion = new AtomicBoolean();
+    private final AsyncLoadingCache<String, Optional<Integer>> remoteLookups;
+    private final long lookupTimeoutNanos;
+    private final Timer snapshotHits;
+    private final Map<String, Map<String, Timer>> remoteLookupTimers;
+    private final Counter bulkHits;
+    private final Counter bulkMisses;
+
+    private volatile IndexSnapshot snapshot = new IndexSnapshot(-1, Map.of(), 0);
 
-    public PlanetsCacheService(RedisTemplate<String, Object> redisTemplate) {
+    public PlanetsCacheService(RedisTemplate<String, Object> redisTemplate,
+            SwapiService swapiService, MovieAppearancesIndexProperties indexProperties,
+            MeterRegistry meterRegistry) {
         this.redisTemplate = redisTemplate;
+        this.maxStalenessNanos = indexProperties.maxStaleness().toNanos();
+        this.lookupTimeoutNanos = indexProperties.lookup().timeout().toNanos();
+        this.remoteLookups = Caffeine.newBuilder()
+                .maximumSize(indexProperties.lookup().maximumSize())
+                .expireAfterWrite(indexProperties.lookup().ttl())
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .recordStats()
+                .buildAsync(swapiService::findPlanetMovieAppearances);
+
+        this.snapshotHits = lookupTimer(meterRegistry, "snapshot", "hit");
+        this.remoteLookupTimers = Map.of(
+                "lookup-cache", remoteLookupTimers(meterRegistry, "lookup-cache"),
+                "swapi", remoteLookupTimers(meterRegistry, "swapi"));
+        this.bulkHits = bulkLookups(meterRegistry, "hit");
+        this.bulkMisses = bulkLookups(meterRegistry, "miss");
+        Gauge.builder("planets.index.lookup.cache.size", remoteLookups,
+                        c -> c.synchronous().estimatedSize())
+                .description("Names resolved on SWAPI and cached because the index lacks them")
+                .register(meterRegistry);
+        FunctionCounter.builder("planets.index.lookup.cache.evictions", remoteLookups,
+                        c -> c.synchronous().stats().evictionCount())
+                .description("SWAPI lookups dropped from the lookup cache by size or TTL")
+                .register(meterRegistry);
+    }
+
+    private record IndexSnapshot(long version, Map<String, String> appearances,
+            long checkedAtNanos) {
+    }
+
+    /**
+     * Replaces the shared index: pipelined HSETs into a staging hash, then RENAME + INCR in one
+     * script so readers see either the old or the new index, never a mix.
+     */
+    public void saveAll(Map<String, String> appearances) {
+        if (appearances.isEmpty()) {
+            logger.warn("Refusing to replace the movie appearances index with an empty one");
+            return;
+        }
+
+        String stagingKey = STAGING_KEY_PREFIX + UUID.randomUUID();
+        byte[] rawStagingKey = stagingKey.getBytes(StandardCharsets.UTF_8);
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            Iterator<Map.Entry<String, String>> entries = appearances.entrySet().iterator();
+            while (entries.hasNext()) {
+                Map<byte[], byte[]> chunk = new HashMap<>();
+                while (entries.hasNext() && chunk.size() < HSET_CHUNK_SIZE) {
+                    Map.Entry<String, String> entry = entries.next();
+                    chunk.put(entry.getKey().getBytes(StandardCharsets.UTF_8),
+                            entry.getValue().getBytes(StandardCharsets.UTF_8));
+                }
+                connection.hashCommands().hMSet(rawStagingKey, chunk);
+            }
+            return null;
+        });
+
+        Long version =
+                redisTemplate.execute(SWAP_SCRIPT, List.of(stagingKey, INDEX_KEY, VERSION_KEY));
+        snapshot = new IndexSnapshot(version != null ? version : -1, Map.copyOf(appearances),
+                System.nanoTime());
+    }
+
+    /**
+     * Applies a diff to the published index and bumps its version in one script. Only succeeds if
+     * Redis still holds the version this node's snapshot was loaded from; returns {@code false}
+     * otherwise (never published, or another node published since), and the caller should
+     * republish the full index with {@link #saveAll(Map)}.
+     */
+    public boolean applyChanges(Map<String, String> changed, Set<String> removed) {
+        IndexSnapshot current = snapshot;
+        if (current.version() < 0) {
+            return false;
+        }
+        if (changed.isEmpty() && removed.isEmpty()) {
+            return true;
+        }
+
+        List<Object> args = new ArrayList<>(2 + changed.size() * 2 + removed.size());
+        args.add(String.valueOf(current.version()));
+        args.add(String.valueOf(changed.size()));
+        changed.forEach((name, appearances) -> {
+            args.add(name);
+            args.add(appearances);
+        });
+        args.addAll(removed);
+
+        Long version = redisTemplate.execute(APPLY_CHANGES_SCRIPT, List.of(INDEX_KEY, VERSION_KEY),
+                args.toArray());
+        if (version == null || version < 0) {
+            return false;
+        }
+
+        Map<String, String> appearances = new HashMap<>(current.appearances());
+        appearances.putAll(changed);
+        appearances.keySet().removeAll(removed);
+        snapshot = new IndexSnapshot(version, Map.copyOf(appearances), System.nanoTime());
+        return true;
+    }
+
+    /** The index this node currently serves, checking the Redis version first if it is due. */
+    public Map<String, String> currentIndex() {
+        return currentSnapshot().appearances();
     }
 
-    public void saveData(String key, Object value) {
-        redisTemplate.opsForValue().set(key, value);
+    /**
+     * Seeds the in-process snapshot (e.g. from the on-disk snapshot at boot) without touching Redis.
+     * The next version check replaces it if Redis already holds a published index.
+     */
+    public void seed(Map<String, String> appearances) {
+        snapshot = new IndexSnapshot(-1, Map.copyOf(appearances), 0);
     }
 
+    /** The count for {@code key}, "0" if SWAPI has no such planet, or null if SWAPI failed. */
     public Object retrieveData(String key) {
-        Object data = redisTemplate.opsForValue().get(key);
+        long start = System.nanoTime();
+        String indexed = currentSnapshot().appearances().get(key);
+        if (indexed != null) {
+            snapshotHits.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return indexed;
+        }
 
-        if (data != null) {
-            return data;
-        } else {
-            return "0";
+        CompletableFuture<Optional<Integer>> cached = remoteLookups.getIfPresent(key);
+        String source = cached != null && cached.isDone() ? "lookup-cache" : "swapi";
+        String result = "error";
+        try {
+            Optional<Integer> appearances = remoteLookups.get(key)
+                    .get(lookupTimeoutNanos, TimeUnit.NANOSECONDS);
+            result = appearances.isPresent() ? "hit" : "miss";
+            return appearances.map(String::valueOf).orElse("0");
+        } catch (ExecutionException | TimeoutException ex) {
+            logger.warn("SWAPI lookup for '{}' failed, storing it as unknown: {}", key,
+                    ex.toString());
+            return null;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return null;
+        } finally {
+            remoteLookupTimers.get(source).get(result)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
         }
     }
+
+    private static Counter bulkLookups(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("planets.index.bulk.lookups")
+                .description("Names resolved by bulk lookups, found in the index or not")
+                .tag("result", result).register(meterRegistry);
+    }
+
+    /** Lookups answered on demand, by result; registered once since the tag set is fixed. */
+    private static Map<String, Timer> remoteLookupTimers(MeterRegistry meterRegistry,
+            String source) {
+        return Map.of("hit", lookupTimer(meterRegistry, source, "hit"),
+                "miss", lookupTimer(meterRegistry, source, "miss"),
+                "error", lookupTimer(meterRegistry, source, "error"));
+    }
+
+    private static Timer lookupTimer(MeterRegistry meterRegistry, String source, String result) {
+        return Timer.builder("planets.index.lookup")
+                .description("Movie-appearance lookups by where they were answered")
+                .tag("source", source).tag("result", result).register(meterRegistry);
+    }
+
+    /**
+     * Bulk variant for batch writes and imports. Served from the index only: unknown names resolve
+     * to "0" rather than fanning out one SWAPI search per row.
+     */
+    public Map<String, String> retrieveAll(List<String> keys) {
+        Map<String, String> appearances = currentSnapshot().appearances();
+        Map<String, String> result = HashMap.newHashMap(keys.size());
+        int hits = 0;
+        for (String key : keys) {
+            String indexed = appearances.get(key);
+            if (indexed != null) {
+                hits++;
+            }
+            result.put(key, indexed != null ? indexed : "0");
+        }
+        bulkHits.increment(hits);
+        bulkMisses.increment(keys.size() - hits);
+        return result;
+    }
+
+    private IndexSnapshot currentSnapshot() {
+        IndexSnapshot current = snapshot;
+        if (System.nanoTime() - current.checkedAtNanos() < maxStalenessNanos
+                || !checkingVersion.compareAndSet(false, true)) {
+            return current;
+        }
+
+        try {
+            long version = readVersion();
+            if (version == current.version() || version < 0) {
+                snapshot = checkedNow(current);
+            } else {
+                snapshot = new IndexSnapshot(version, readIndex(), System.nanoTime());
+                logger.info("Reloaded movie appearances index version {}", version);
+            }
+        } catch (RuntimeException ex) {
+            logger.warn("Could not check the movie appearances index version: {}", ex.getMessage());
+            snapshot = checkedNow(current);
+        } finally {
+            checkingVersion.set(false);
+        }
+        return snapshot;
+    }
+
+    private static IndexSnapshot checkedNow(IndexSnapshot current) {
+        return new IndexSnapshot(current.version(), current.appearances(), System.nanoTime());
+    }
+
+    private long readVersion() {
+        Object version = redisTemplate.opsForValue().get(VERSION_KEY);
+        return version != null ? Long.parseLong((String) version) : -1;
+    }
+
+    private Map<String, String> readIndex() {
+        Map<String, String> appearances = new HashMap<>();
+        redisTemplate.execute((RedisCallback<Object>) connection -> {
+            Map<byte[], byte[]> entries =
+                    connection.hashCommands().hGetAll(INDEX_KEY.getBytes(StandardCharsets.UTF_8));
+            if (entries != null) {
+                entries.forEach((field, value) -> appearances.put(
+                        new String(field, StandardCharsets.UTF_8),
+                        new String(value, StandardCharsets.UTF_8)));
+            }
+            return null;
+        });
+        return Map.copyOf(appearances);
+    }
 }
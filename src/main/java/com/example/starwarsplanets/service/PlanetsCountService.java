@@ -0,0 +1,88 @@
+package com.example.starwarsplanets.service;
+
+import java.util.OptionalLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import com.example.starwarsplanets.config.PaginationProperties;
+import com.example.starwarsplanets.repository.PlanetsRepository;
+
+/**
+ * Total number of planets, kept in Redis so list pages do not need a COUNT(*). Writes adjust it
+ * with INCRBY once their transaction has committed; a scheduled reconcile overwrites it with the
+ * real count, which also corrects any drift (a write that raced a reconcile, a lost increment
+ * while Redis was down, rows changed outside the application).
+ */
+@Service
+@EnableConfigurationProperties(PaginationProperties.class)
+public class PlanetsCountService {
+
+  static final String COUNT_KEY = "planets:count";
+
+  private static final Logger logger = LoggerFactory.getLogger(PlanetsCountService.class);
+
+  private final RedisTemplate<String, Object> redisTemplate;
+  private final PlanetsRepository planetsRepository;
+
+  public PlanetsCountService(RedisTemplate<String, Object> redisTemplate,
+      PlanetsRepository planetsRepository) {
+    this.redisTemplate = redisTemplate;
+    this.planetsRepository = planetsRepository;
+  }
+
+  /** The maintained count, initialized from the table on first use; empty if Redis is down. */
+  public OptionalLong current() {
+    try {
+      Object count = redisTemplate.opsForValue().get(COUNT_KEY);
+      if (count == null) {
+        return OptionalLong.of(reconcile());
+      }
+      return OptionalLong.of(Long.parseLong((String) count));
+    } catch (RuntimeException ex) {
+      logger.warn("Could not read the maintained planet count: {}", ex.getMessage());
+      return OptionalLong.empty();
+    }
+  }
+
+  public void adjustAfterCommit(long delta) {
+    if (delta == 0) {
+      return;
+    }
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCommit() {
+          adjust(delta);
+        }
+      });
+    } else {
+      adjust(delta);
+    }
+  }
+
+  @Scheduled(initialDelayString = "${planets.pagination.count-reconcile-interval:PT5M}",
+      fixedDelayString = "${planets.pagination.count-reconcile-interval:PT5M}")
+  public long reconcile() {
+    long count = planetsRepository.count();
+    redisTemplate.opsForValue().set(COUNT_KEY, String.valueOf(count));
+    logger.debug("Reconciled the planet count: {}", count);
+    return count;
+  }
+
+  private void adjust(long delta) {
+    try {
+      // Only adjust an initialized counter; a missing key is rebuilt from the table on next read.
+      if (Boolean.TRUE.equals(redisTemplate.hasKey(COUNT_KEY))) {
+        redisTemplate.opsForValue().increment(COUNT_KEY, delta);
+      }
+    } catch (RuntimeException ex) {
+      logger.warn("Could not adjust the maintained planet count by {}: {}", delta,
+          ex.getMessage());
+    }
+  }
+}
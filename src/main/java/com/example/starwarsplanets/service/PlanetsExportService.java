@@ -0,0 +1,70 @@
+package com.example.starwarsplanets.service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.stream.Stream;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import com.example.starwarsplanets.dto.ResponsePlanetDTO;
+import com.example.starwarsplanets.entity.Planet;
+import com.example.starwarsplanets.mapper.PlanetMapper;
+import com.example.starwarsplanets.repository.PlanetsRepository;
+import jakarta.persistence.EntityManager;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.ObjectWriter;
+
+/**
+ * Streams every planet as newline-delimited JSON. Rows come from a database cursor and are
+ * detached as soon as they are written, so heap use does not grow with the table size.
+ */
+@Service
+public class PlanetsExportService {
+
+  private static final int NEWLINE = '\n';
+
+  private final PlanetsRepository planetsRepository;
+  private final PlanetMapper planetMapper;
+  private final EntityManager entityManager;
+  private final ObjectWriter objectWriter;
+  private final TransactionTemplate transactionTemplate;
+
+  public PlanetsExportService(PlanetsRepository planetsRepository, PlanetMapper planetMapper,
+      EntityManager entityManager, ObjectMapper objectMapper,
+      PlatformTransactionManager transactionManager) {
+    this.planetsRepository = planetsRepository;
+    this.planetMapper = planetMapper;
+    this.entityManager = entityManager;
+    this.objectWriter = objectMapper.writerFor(ResponsePlanetDTO.class);
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.transactionTemplate.setReadOnly(true);
+  }
+
+  public long exportAll(OutputStream outputStream) {
+    Long exported = transactionTemplate.execute(status -> {
+      OutputStream out = new BufferedOutputStream(outputStream);
+      long count = 0;
+
+      try (Stream<Planet> planets = planetsRepository.streamAll()) {
+        Iterator<Planet> iterator = planets.iterator();
+        while (iterator.hasNext()) {
+          Planet planet = iterator.next();
+          ResponsePlanetDTO dto = planetMapper.toDTO(planet);
+          entityManager.detach(planet);
+
+          out.write(objectWriter.writeValueAsBytes(dto));
+          out.write(NEWLINE);
+          count++;
+        }
+        out.flush();
+      } catch (IOException ex) {
+        throw new UncheckedIOException(ex);
+      }
+      return count;
+    });
+    return exported != null ? exported : 0;
+  }
+}
@@ -0,0 +1,232 @@
+package com.example.starwarsplanets.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Service;
+import com.example.starwarsplanets.config.GroupCommitProperties;
+import com.example.starwarsplanets.dto.RequestPlanetDTO;
+import com.example.starwarsplanets.dto.ResponsePlanetDTO;
+import com.example.starwarsplanets.entity.Planet;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Group commit for {@code POST /v1/planets}. With {@code planets.group-commit.enabled}, concurrent
+ * creates are queued and flushed together by {@link PlanetsService#saveGroup}: one transaction,
+ * one JDBC batch and one commit for the whole group, so a burst is no longer capped at one commit
+ * per pool connection. Each caller resolves its movie appearances before queueing, on its own
+ * thread and outside the transaction, then blocks until its group is committed and gets its own
+ * result, or empty for a taken name.
+ *
+ * <p>When a group's average queueing delay exceeds the latency SLO, creates bypass the queue for
+ * a short cool-down and commit on their own. A group that fails as a whole (one row the database
+ * rejects) is retried request by request, so only the offending request sees the error.
+ *
+ * <p>A caller waits at most the window plus the SLO for its group. If no flusher has picked the
+ * create up by then, it is taken back out of the queue and committed on its own; once a flusher
+ * holds it, the outcome belongs to that flush, which is bounded by {@link #FLUSH_TIMEOUT}. Every
+ * create still queued or held when the committer stops is failed rather than left waiting.
+ */
+@Service
+@EnableConfigurationProperties(GroupCommitProperties.class)
+public class PlanetsGroupCommitter implements SmartInitializingSingleton, DisposableBean {
+
+  private static final Logger logger = LoggerFactory.getLogger(PlanetsGroupCommitter.class);
+
+  private static final Duration SLO_COOLDOWN = Duration.ofSeconds(1);
+  private static final long IDLE_POLL_MILLIS = 100;
+  private static final Duration FLUSH_TIMEOUT = Duration.ofSeconds(30);
+
+  private final PlanetsService planetsService;
+  private final GroupCommitProperties properties;
+  private final BlockingQueue<PendingCreate> queue = new LinkedBlockingQueue<>();
+  private final List<Thread> flushers = new ArrayList<>();
+  private final long windowNanos;
+  private final long sloNanos;
+  private final long waitNanos;
+  private volatile boolean running;
+  private volatile long bypassUntilNanos;
+
+  private final DistributionSummary batchSize;
+  private final Timer queueDelay;
+  private final Counter bypassed;
+  private final Counter timedOut;
+
+  public PlanetsGroupCommitter(PlanetsService planetsService, GroupCommitProperties properties,
+      MeterRegistry meterRegistry) {
+    this.planetsService = planetsService;
+    this.properties = properties;
+    this.windowNanos = properties.window().toNanos();
+    this.sloNanos = properties.latencySlo().toNanos();
+    this.waitNanos = windowNanos + sloNanos;
+    this.bypassUntilNanos = System.nanoTime();
+
+    this.batchSize = DistributionSummary.builder("planets.group-commit.batch.size")
+        .description("Creates committed together in one group").publishPercentileHistogram()
+        .register(meterRegistry);
+    this.queueDelay = Timer.builder("planets.group-commit.queue.delay")
+        .description("Time a create waited in the queue before its group was flushed")
+        .publishPercentileHistogram().serviceLevelObjectives(properties.latencySlo())
+        .register(meterRegistry);
+    this.bypassed = Counter.builder("planets.group-commit.bypassed")
+        .description("Creates committed on their own because queueing delay exceeded the SLO")
+        .register(meterRegistry);
+    this.timedOut = Counter.builder("planets.group-commit.timed-out")
+        .description("Creates taken back out of the queue after waiting longer than window + SLO")
+        .register(meterRegistry);
+  }
+
+  private record PendingCreate(Planet planet, long enqueuedNanos,
+      CompletableFuture<Optional<ResponsePlanetDTO>> result) {
+  }
+
+  @Override
+  public void afterSingletonsInstantiated() {
+    if (!properties.enabled()) {
+      return;
+    }
+    running = true;
+    for (int i = 0; i < Math.max(1, properties.flushers()); i++) {
+      flushers.add(Thread.ofPlatform().daemon().name("planets-group-commit-" + i)
+          .start(this::flushLoop));
+    }
+    logger.info("Group commit enabled: window {}, up to {} creates per group, {} flushers",
+        properties.window(), properties.maxBatchSize(), flushers.size());
+  }
+
+  public Optional<ResponsePlanetDTO> save(RequestPlanetDTO request) {
+    if (!running) {
+      return planetsService.save(request);
+    }
+    Planet planet = planetsService.prepare(request);
+    if (System.nanoTime() - bypassUntilNanos < 0) {
+      bypassed.increment();
+      return planetsService.insert(planet);
+    }
+
+    PendingCreate pending =
+        new PendingCreate(planet, System.nanoTime(), new CompletableFuture<>());
+    queue.add(pending);
+    if (!running && queue.remove(pending)) {
+      return planetsService.insert(planet);
+    }
+    try {
+      try {
+        return pending.result().get(waitNanos, TimeUnit.NANOSECONDS);
+      } catch (TimeoutException ex) {
+        if (queue.remove(pending)) {
+          timedOut.increment();
+          return planetsService.insert(planet);
+        }
+        return pending.result().get(FLUSH_TIMEOUT.toNanos(), TimeUnit.NANOSECONDS);
+      }
+    } catch (ExecutionException ex) {
+      if (ex.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      throw new IllegalStateException("Group commit failed", ex.getCause());
+    } catch (TimeoutException ex) {
+      pending.result().cancel(false);
+      throw new IllegalStateException("Group commit did not finish within " + FLUSH_TIMEOUT, ex);
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      queue.remove(pending);
+      throw new IllegalStateException("Interrupted while waiting for group commit", ex);
+    }
+  }
+
+  @Override
+  public void destroy() throws InterruptedException {
+    running = false;
+    for (Thread flusher : flushers) {
+      flusher.join(Duration.ofSeconds(5));
+    }
+    PendingCreate stranded;
+    while ((stranded = queue.poll()) != null) {
+      stranded.result().completeExceptionally(
+          new IllegalStateException("Group commit stopped before the create was flushed"));
+    }
+  }
+
+  private void flushLoop() {
+    List<PendingCreate> group = new ArrayList<>(properties.maxBatchSize());
+    while (running || !queue.isEmpty()) {
+      try {
+        PendingCreate first = queue.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+        if (first == null) {
+          continue;
+        }
+        group.add(first);
+        long deadline = first.enqueuedNanos() + windowNanos;
+        while (group.size() < properties.maxBatchSize()) {
+          long remaining = deadline - System.nanoTime();
+          PendingCreate next =
+              remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+          if (next == null) {
+            break;
+          }
+          group.add(next);
+        }
+        flush(group);
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+        return;
+      } finally {
+        // Completed futures ignore this; anything still pending here lost its flush.
+        group.forEach(pending -> pending.result().completeExceptionally(
+            new IllegalStateException("Group commit stopped before the create was flushed")));
+        group.clear();
+      }
+    }
+  }
+
+  private void flush(List<PendingCreate> group) {
+    long start = System.nanoTime();
+    long totalDelay = 0;
+    for (PendingCreate pending : group) {
+      long delay = start - pending.enqueuedNanos();
+      queueDelay.record(delay, TimeUnit.NANOSECONDS);
+      totalDelay += delay;
+    }
+    batchSize.record(group.size());
+    if (totalDelay / group.size() > sloNanos) {
+      bypassUntilNanos = start + SLO_COOLDOWN.toNanos();
+    }
+
+    List<Optional<ResponsePlanetDTO>> results;
+    try {
+      results = planetsService.saveGroup(group.stream().map(PendingCreate::planet).toList());
+    } catch (RuntimeException ex) {
+      logger.warn("Group of {} creates failed, committing them one by one: {}", group.size(),
+          ex.getMessage());
+      group.forEach(this::saveAlone);
+      return;
+    }
+    for (int i = 0; i < group.size(); i++) {
+      group.get(i).result().complete(results.get(i));
+    }
+  }
+
+  private void saveAlone(PendingCreate pending) {
+    try {
+      pending.result().complete(planetsService.insert(pending.planet()));
+    } catch (RuntimeException ex) {
+      pending.result().completeExceptionally(ex);
+    }
+  }
+}
@@ -0,0 +1,197 @@
+package com.example.starwarsplanets.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import com.example.starwarsplanets.cache.PlanetsCacheEvictor;
+import com.example.starwarsplanets.dto.ImportResultDTO;
+import com.example.starwarsplanets.dto.RequestPlanetDTO;
+import com.example.starwarsplanets.entity.Planet;
+import com.example.starwarsplanets.mapper.PlanetMapper;
+import com.example.starwarsplanets.repository.PlanetsJdbcRepository;
+import jakarta.validation.Validator;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.ObjectReader;
+
+/**
+ * Bulk import for seeding and snapshot replays. Rows are read as a stream (CSV or NDJSON),
+ * enriched with movie appearances one chunk at a time, loaded with PostgreSQL COPY into a staging
+ * table and merged into {@code planets} with a single upsert.
+ */
+@Service
+public class PlanetsImportService {
+
+  public static final MediaType TEXT_CSV = MediaType.parseMediaType("text/csv");
+
+  private static final Logger logger = LoggerFactory.getLogger(PlanetsImportService.class);
+  private static final int CHUNK_SIZE = 1000;
+  private static final int MAX_COLUMN_LENGTH = 255;
+
+  private final PlanetsJdbcRepository planetsJdbcRepository;
+  private final PlanetsCacheService planetsCacheService;
+  private final PlanetsCacheEvictor planetsCacheEvictor;
+  private final PlanetsCountService planetsCountService;
+  private final PlanetFacetIndex planetFacetIndex;
+  private final PlanetMapper planetMapper;
+  private final Validator validator;
+  private final ObjectReader planetReader;
+
+  public PlanetsImportService(PlanetsJdbcRepository planetsJdbcRepository,
+      PlanetsCacheService planetsCacheService, PlanetsCacheEvictor planetsCacheEvictor,
+      PlanetsCountService planetsCountService, PlanetFacetIndex planetFacetIndex,
+      PlanetMapper planetMapper, Validator validator, ObjectMapper objectMapper) {
+    this.planetsJdbcRepository = planetsJdbcRepository;
+    this.planetsCacheService = planetsCacheService;
+    this.planetsCacheEvictor = planetsCacheEvictor;
+    this.planetsCountService = planetsCountService;
+    this.planetFacetIndex = planetFacetIndex;
+    this.planetMapper = planetMapper;
+    this.validator = validator;
+    this.planetReader = objectMapper.readerFor(RequestPlanetDTO.class);
+  }
+
+  @Transactional
+  public ImportResultDTO importPlanets(InputStream inputStream, MediaType contentType) {
+    boolean csv = TEXT_CSV.isCompatibleWith(contentType);
+    long start = System.nanoTime();
+    long rowsRead = 0;
+    long rejected = 0;
+
+    BufferedReader reader =
+        new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+    try (PlanetsJdbcRepository.StagingCopy copy = planetsJdbcRepository.openStagingCopy()) {
+      try {
+        List<RequestPlanetDTO> chunk = new ArrayList<>(CHUNK_SIZE);
+        String line;
+        boolean firstLine = true;
+
+        while ((line = reader.readLine()) != null) {
+          if (line.isBlank() || (csv && firstLine && isCsvHeader(line))) {
+            firstLine = false;
+            continue;
+          }
+          firstLine = false;
+          rowsRead++;
+
+          RequestPlanetDTO planet = csv ? parseCsv(line) : parseJson(line);
+          if (!isValid(planet)) {
+            rejected++;
+            continue;
+          }
+
+          chunk.add(planet);
+          if (chunk.size() == CHUNK_SIZE) {
+            stage(chunk, copy);
+          }
+        }
+        stage(chunk, copy);
+      } catch (IOException ex) {
+        copy.abort();
+        throw new UncheckedIOException(ex);
+      } catch (RuntimeException ex) {
+        copy.abort();
+        throw ex;
+      }
+    }
+
+    PlanetsJdbcRepository.MergeResult merged = planetsJdbcRepository.mergeStaging();
+    planetsCacheEvictor.clearAfterCommit();
+    planetsCountService.adjustAfterCommit(merged.inserted());
+    planetFacetIndex.rebuildAfterCommit();
+
+    long durationMillis = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+    double rowsPerSecond = rowsRead * 1000.0 / durationMillis;
+    logger.info("Imported {} rows ({} inserted, {} updated, {} rejected) in {} ms ({} rows/s)",
+        rowsRead, merged.inserted(), merged.updated(), rejected, durationMillis,
+        Math.round(rowsPerSecond));
+
+    return new ImportResultDTO(rowsRead, rejected, merged.inserted(), merged.updated(),
+        durationMillis, rowsPerSecond);
+  }
+
+  /**
+   * Resolves the chunk's movie appearances with one Redis call and streams it into the COPY.
+   */
+  private void stage(List<RequestPlanetDTO> chunk, PlanetsJdbcRepository.StagingCopy copy) {
+    if (chunk.isEmpty()) {
+      return;
+    }
+
+    Map<String, String> movieAppearances =
+        planetsCacheService.retrieveAll(chunk.stream().map(RequestPlanetDTO::name).toList());
+    for (RequestPlanetDTO request : chunk) {
+      Planet planet = planetMapper.toEntity(request);
+      planet.setMovieApppearances(movieAppearances.get(request.name()));
+      copy.write(planet);
+    }
+    chunk.clear();
+  }
+
+  private boolean isValid(RequestPlanetDTO planet) {
+    return planet != null && validator.validate(planet).isEmpty()
+        && planet.name().length() <= MAX_COLUMN_LENGTH
+        && planet.terrain().length() <= MAX_COLUMN_LENGTH
+        && planet.climate().length() <= MAX_COLUMN_LENGTH;
+  }
+
+  private RequestPlanetDTO parseJson(String line) {
+    try {
+      return planetReader.readValue(line);
+    } catch (JacksonException ex) {
+      return null;
+    }
+  }
+
+  private static boolean isCsvHeader(String line) {
+    return line.replace("\"", "").trim().toLowerCase().startsWith("name,");
+  }
+
+  /**
+   * Parses one {@code name,terrain,climate} record; fields may be double-quoted with {@code ""}
+   * escapes, as in RFC 4180. Returns {@code null} for malformed records.
+   */
+  static RequestPlanetDTO parseCsv(String line) {
+    List<String> fields = new ArrayList<>(3);
+    StringBuilder field = new StringBuilder();
+    boolean quoted = false;
+
+    for (int i = 0; i < line.length(); i++) {
+      char c = line.charAt(i);
+      if (quoted) {
+        if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+          field.append('"');
+          i++;
+        } else if (c == '"') {
+          quoted = false;
+        } else {
+          field.append(c);
+        }
+      } else if (c == '"') {
+        quoted = true;
+      } else if (c == ',') {
+        fields.add(field.toString().trim());
+        field.setLength(0);
+      } else {
+        field.append(c);
+      }
+    }
+    fields.add(field.toString().trim());
+
+    if (quoted || fields.size() != 3) {
+      return null;
+    }
+    return new RequestPlanetDTO(fields.get(0), fields.get(1), fields.get(2));
+  }
+}
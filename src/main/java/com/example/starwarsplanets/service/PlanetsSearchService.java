@@ -0,0 +1,52 @@
+package com.example.starwarsplanets.service;
+
+import java.time.Duration;
+import java.util.List;
+import org.springframework.stereotype.Service;
+import com.example.starwarsplanets.dto.ResponsePlanetDTO;
+import com.example.starwarsplanets.repository.PlanetsSearchRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Autocomplete-style name search. Latency is recorded per mode as {@code planets.search} with a
+ * percentile histogram and a 50 ms service level objective, so p99 can be tracked under load.
+ */
+@Service
+public class PlanetsSearchService {
+
+  public static final int MAX_LIMIT = 50;
+
+  private final PlanetsSearchRepository planetsSearchRepository;
+  private final Timer prefixTimer;
+  private final Timer fuzzyTimer;
+
+  public PlanetsSearchService(PlanetsSearchRepository planetsSearchRepository,
+      MeterRegistry meterRegistry) {
+    this.planetsSearchRepository = planetsSearchRepository;
+    this.prefixTimer = searchTimer(meterRegistry, "prefix");
+    this.fuzzyTimer = searchTimer(meterRegistry, "fuzzy");
+  }
+
+  private static Timer searchTimer(MeterRegistry meterRegistry, String mode) {
+    return Timer.builder("planets.search").description("Planet name search latency")
+        .tag("mode", mode).publishPercentileHistogram()
+        .serviceLevelObjectives(Duration.ofMillis(50)).register(meterRegistry);
+  }
+
+  /** Case-insensitive prefix match, exact and shorter names first. */
+  public List<ResponsePlanetDTO> searchByPrefix(String prefix, int limit) {
+    return prefixTimer
+        .record(() -> planetsSearchRepository.findByNamePrefix(prefix, clampLimit(limit)));
+  }
+
+  /** Typo-tolerant match ranked by prefix match, then trigram similarity. */
+  public List<ResponsePlanetDTO> searchFuzzy(String query, int limit) {
+    return fuzzyTimer
+        .record(() -> planetsSearchRepository.findByNameSimilarTo(query, clampLimit(limit)));
+  }
+
+  static int clampLimit(int limit) {
+    return Math.clamp(limit, 1, MAX_LIMIT);
+  }
+}
@@ -2,18 +2,39 @@ package com.example.starwarsplanets.service;
 
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.cache.annotation.Cacheable;
-import org.springframework.cache.annotation.CacheEvict;
+import com.example.starwarsplanets.cache.PlanetsCacheEvictor;
+import com.example.starwarsplanets.config.PaginationProperties;
 import com.example.starwarsplanets.dto.ResponsePlanetDTO;
 import com.example.starwarsplanets.dto.RequestPlanetDTO;
 import com.example.starwarsplanets.dto.PagedResponsePlanetDTO;
+import com.example.starwarsplanets.dto.CursorPagedResponsePlanetDTO;
+import com.example.starwarsplanets.dto.BatchPlanetResultDTO;
+import com.example.starwarsplanets.dto.BatchResponsePlanetDTO;
 import com.example.starwarsplanets.entity.Planet;
+import com.example.starwarsplanets.exception.InvalidCursorException;
 import com.example.starwarsplanets.mapper.PlanetMapper;
+import com.example.starwarsplanets.repository.PlanetsJdbcRepository;
 import com.example.starwarsplanets.repository.PlanetsRepository;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 import java.util.Optional;
+import java.util.OptionalLong;
 import java.util.UUID;
 
 @Service
@@ -21,52 +42,294 @@ public class PlanetsService {
 
   private final PlanetMapper planetMapper;
   private final PlanetsRepository planetsRepository;
+  private final PlanetsJdbcRepository planetsJdbcRepository;
   private final PlanetsCacheService planetsCacheService;
+  private final PlanetsCacheEvictor planetsCacheEvictor;
+  private final PlanetsCountService planetsCountService;
+  private final PlanetFacetIndex planetFacetIndex;
+  private final Validator validator;
+  private final boolean exactCount;
 
-  public PlanetsService(PlanetsRepository planetsRepository, PlanetMapper planetMapper,
-      PlanetsCacheService planetsCacheService) {
+  public PlanetsService(PlanetsRepository planetsRepository,
+      PlanetsJdbcRepository planetsJdbcRepository, PlanetMapper planetMapper,
+      PlanetsCacheService planetsCacheService, PlanetsCacheEvictor planetsCacheEvictor,
+      PlanetsCountService planetsCountService, PlanetFacetIndex planetFacetIndex,
+      Validator validator, PaginationProperties paginationProperties) {
     this.planetsRepository = planetsRepository;
+    this.planetsJdbcRepository = planetsJdbcRepository;
     this.planetMapper = planetMapper;
     this.planetsCacheService = planetsCacheService;
+    this.planetsCacheEvictor = planetsCacheEvictor;
+    this.planetsCountService = planetsCountService;
+    this.planetFacetIndex = planetFacetIndex;
+    this.validator = validator;
+    this.exactCount = paginationProperties.exactCount();
   }
 
-  @Transactional
-  @CacheEvict(value = "planets", allEntries = true)
-  public ResponsePlanetDTO save(RequestPlanetDTO requestPlanetDTO) {
+  /**
+   * Creates the planet with a single INSERT ... ON CONFLICT DO NOTHING outside any transaction: the
+   * statement commits on its own, so the connection is held for one round trip, and a taken name
+   * comes back as an empty result instead of a constraint violation.
+   */
+  public Optional<ResponsePlanetDTO> save(RequestPlanetDTO requestPlanetDTO) {
+    return insert(prepare(requestPlanetDTO));
+  }
+
+  /**
+   * Builds the row to insert for one create, with its movie appearances resolved like a single
+   * save does (index, then SWAPI). Runs before any connection is taken, so a slow SWAPI lookup
+   * never holds one.
+   */
+  public Planet prepare(RequestPlanetDTO requestPlanetDTO) {
     Planet planet = planetMapper.toEntity(requestPlanetDTO);
-    String movieAppearances = (String) planetsCacheService.retrieveData(planet.getName());
-    planet.setMovieApppearances(movieAppearances);
-    Planet savedPlanet = planetsRepository.save(planet);
-    return planetMapper.toDTO(savedPlanet);
+    planet.setMovieApppearances((String) planetsCacheService.retrieveData(planet.getName()));
+    LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+    planet.setId(UUID.randomUUID());
+    planet.setCreatedAt(now);
+    planet.setUpdatedAt(now);
+    return planet;
   }
 
+  /** Inserts a planet built by {@link #prepare}; empty when the name is taken. */
+  public Optional<ResponsePlanetDTO> insert(Planet planet) {
+    if (!planetsJdbcRepository.insertIfAbsent(planet)) {
+      return Optional.empty();
+    }
+    planetsCacheEvictor.evictAfterCommit(planet.getId(), planet.getName());
+    planetsCountService.adjustAfterCommit(1);
+    planetFacetIndex.putAfterCommit(List.of(planet));
+    return Optional.of(planetMapper.toDTO(planet));
+  }
+
+  /**
+   * Creates many planets in one transaction. Items are validated individually, movie appearances
+   * are resolved with one Redis call, and rows are inserted in JDBC batches; invalid items and name
+   * conflicts are reported per item instead of failing the whole batch.
+   */
   @Transactional
-  @CacheEvict(value = "planets", allEntries = true)
+  public BatchResponsePlanetDTO saveAll(List<RequestPlanetDTO> requestPlanetDTOs) {
+    BatchPlanetResultDTO[] results = new BatchPlanetResultDTO[requestPlanetDTOs.size()];
+    List<Integer> accepted = new ArrayList<>();
+    Set<String> names = new HashSet<>();
+
+    for (int i = 0; i < requestPlanetDTOs.size(); i++) {
+      RequestPlanetDTO request = requestPlanetDTOs.get(i);
+      String violations = validate(request);
+      if (violations != null) {
+        results[i] = new BatchPlanetResultDTO(i, 400, null, violations);
+      } else if (!names.add(request.name())) {
+        results[i] = conflict(i);
+      } else {
+        accepted.add(i);
+      }
+    }
+
+    List<Planet> planets =
+        toPlanets(accepted.stream().map(requestPlanetDTOs::get).toList());
+    boolean[] inserted = planetsJdbcRepository.insertAllIfAbsent(planets);
+    List<Planet> created = new ArrayList<>();
+    for (int i = 0; i < planets.size(); i++) {
+      int index = accepted.get(i);
+      if (inserted[i]) {
+        results[index] =
+            new BatchPlanetResultDTO(index, 201, planetMapper.toDTO(planets.get(i)), null);
+        created.add(planets.get(i));
+      } else {
+        results[index] = conflict(index);
+      }
+    }
+
+    afterCreate(created);
+    return new BatchResponsePlanetDTO(Arrays.asList(results), created.size(),
+        results.length - created.size());
+  }
+
+  /**
+   * Inserts planets built by {@link #prepare} and collected by {@link PlanetsGroupCommitter} in one
+   * transaction and one JDBC batch. Returns, per planet, the created planet or empty when the name
+   * was taken, by an existing row or by an earlier planet of the same group.
+   */
+  @Transactional
+  public List<Optional<ResponsePlanetDTO>> saveGroup(List<Planet> planets) {
+    List<Optional<ResponsePlanetDTO>> results = new ArrayList<>(planets.size());
+    List<Integer> accepted = new ArrayList<>();
+    Set<String> names = new HashSet<>();
+    for (int i = 0; i < planets.size(); i++) {
+      results.add(Optional.empty());
+      if (names.add(planets.get(i).getName())) {
+        accepted.add(i);
+      }
+    }
+
+    List<Planet> batch = accepted.stream().map(planets::get).toList();
+    boolean[] inserted = planetsJdbcRepository.insertAllIfAbsent(batch);
+    List<Planet> created = new ArrayList<>();
+    for (int i = 0; i < batch.size(); i++) {
+      if (inserted[i]) {
+        results.set(accepted.get(i), Optional.of(planetMapper.toDTO(batch.get(i))));
+        created.add(batch.get(i));
+      }
+    }
+
+    afterCreate(created);
+    return results;
+  }
+
+  /**
+   * Builds the rows to insert, with movie appearances resolved in one call. Timestamps are cut to
+   * the microseconds the column stores, so the response matches later reads.
+   */
+  private List<Planet> toPlanets(List<RequestPlanetDTO> requestPlanetDTOs) {
+    Map<String, String> movieAppearances = planetsCacheService
+        .retrieveAll(requestPlanetDTOs.stream().map(RequestPlanetDTO::name).toList());
+    LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+    List<Planet> planets = new ArrayList<>(requestPlanetDTOs.size());
+    for (RequestPlanetDTO request : requestPlanetDTOs) {
+      Planet planet = planetMapper.toEntity(request);
+      planet.setId(UUID.randomUUID());
+      planet.setMovieApppearances(movieAppearances.get(planet.getName()));
+      planet.setCreatedAt(now);
+      planet.setUpdatedAt(now);
+      planets.add(planet);
+    }
+    return planets;
+  }
+
+  private void afterCreate(List<Planet> created) {
+    // Ids are freshly generated and cannot be cached yet; only negative name lookups can be stale.
+    planetsCacheEvictor.evictAfterCommit(created.stream().map(Planet::getName).toList());
+    planetsCountService.adjustAfterCommit(created.size());
+    planetFacetIndex.putAfterCommit(created);
+  }
+
+  private String validate(RequestPlanetDTO request) {
+    if (request == null) {
+      return "Planet cannot be null";
+    }
+
+    Set<ConstraintViolation<RequestPlanetDTO>> violations = validator.validate(request);
+    if (violations.isEmpty()) {
+      return null;
+    }
+    return violations.stream()
+        .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage()).sorted()
+        .collect(Collectors.joining("; "));
+  }
+
+  private static BatchPlanetResultDTO conflict(int index) {
+    return new BatchPlanetResultDTO(index, 409, null, "A resource with this name already exists");
+  }
+
+  /** One DELETE ... RETURNING, which also yields the name whose cache entry must go. */
   public boolean delete(UUID id) {
-    if (planetsRepository.existsById(id)) {
-      planetsRepository.deleteById(id);
-      return true;
+    Optional<String> name = planetsJdbcRepository.deleteById(id);
+    if (name.isEmpty()) {
+      return false;
     }
-    return false;
+
+    planetsCacheEvictor.evictAfterCommit(id, name.get());
+    planetsCountService.adjustAfterCommit(-1);
+    planetFacetIndex.removeAfterCommit(id);
+    return true;
   }
 
+  /**
+   * Reads the page as a slice and takes the total from the maintained count, so no COUNT(*) runs
+   * per request. Falls back to an exact count when {@code planets.pagination.exact-count} is set
+   * or the maintained count is unavailable.
+   */
   @Transactional(readOnly = true)
   public PagedResponsePlanetDTO getAll(Pageable pageable) {
-    Page<Planet> planets = planetsRepository.findAll(pageable);
-    List<ResponsePlanetDTO> dtos = planetMapper.toDTOList(planets.getContent());
-    return new PagedResponsePlanetDTO(dtos, planets.getTotalElements(), planets.getTotalPages(),
-        planets.getSize(), planets.getNumber(), planets.isFirst(), planets.isLast());
+    OptionalLong total = exactCount ? OptionalLong.empty() : planetsCountService.current();
+    if (total.isPresent()) {
+      Slice<ResponsePlanetDTO> planets = planetsRepository.findSliceAsDTO(pageable);
+      // The count may lag a concurrent write; never report fewer rows than this page proves.
+      long totalElements = Math.max(total.getAsLong(),
+          pageable.getOffset() + planets.getNumberOfElements() + (planets.hasNext() ? 1 : 0));
+      int totalPages = (int) Math.ceilDiv(totalElements, pageable.getPageSize());
+      return withFacets(new PagedResponsePlanetDTO(planets.getContent(), totalElements,
+          totalPages, planets.getSize(), planets.getNumber(), planets.isFirst(), planets.isLast()),
+          planetFacetIndex.facets());
+    }
+
+    Page<ResponsePlanetDTO> planets = planetsRepository.findAllAsDTO(pageable);
+    return withFacets(new PagedResponsePlanetDTO(planets.getContent(), planets.getTotalElements(),
+        planets.getTotalPages(), planets.getSize(), planets.getNumber(), planets.isFirst(),
+        planets.isLast()), planetFacetIndex.facets());
   }
 
+  /**
+   * Filters by terrain and climate on the in-memory {@link PlanetFacetIndex}, which also supplies
+   * the total and the facet counts. The database orders the matching ids by name and reads only
+   * the requested page.
+   */
   @Transactional(readOnly = true)
-  @Cacheable(value = "planets", key = "#id")
+  public PagedResponsePlanetDTO getAll(Pageable pageable, Set<String> terrains,
+      Set<String> climates, boolean matchAll) {
+    PlanetFacetIndex.Result matches = planetFacetIndex.query(terrains, climates, matchAll);
+    List<ResponsePlanetDTO> planets = pageable.getOffset() < matches.total()
+        ? planetsJdbcRepository.findPageByIdIn(matches.ids(), pageable.getOffset(),
+            pageable.getPageSize())
+        : List.of();
+    int totalPages = (int) Math.ceilDiv(matches.total(), pageable.getPageSize());
+    return withFacets(new PagedResponsePlanetDTO(planets, matches.total(), totalPages,
+        pageable.getPageSize(), pageable.getPageNumber(), pageable.getPageNumber() == 0,
+        pageable.getPageNumber() >= totalPages - 1), matches.facets());
+  }
+
+  private static PagedResponsePlanetDTO withFacets(PagedResponsePlanetDTO page,
+      Map<String, Map<String, Long>> facets) {
+    page.setFacets(facets);
+    return page;
+  }
+
+  /**
+   * Keyset pagination: seeks past the last name of the previous page on the name index instead of
+   * skipping rows, and fetches one extra row to know whether there is a next page, so no count
+   * query is needed. {@code after} is the name decoded from the cursor with
+   * {@link #decodeCursor(String)}.
+   */
+  @Transactional(readOnly = true)
+  public CursorPagedResponsePlanetDTO getAllAfter(String after, int size) {
+    List<ResponsePlanetDTO> planets =
+        planetsRepository.findAsDTOByNameAfter(after, Limit.of(size + 1));
+    boolean last = planets.size() <= size;
+    List<ResponsePlanetDTO> page = last ? planets : planets.subList(0, size);
+    String nextCursor = last ? null : encodeCursor(page.getLast().name());
+    return new CursorPagedResponsePlanetDTO(page, size, nextCursor, last);
+  }
+
+  @Transactional(readOnly = true)
+  @Cacheable(value = PlanetsCacheEvictor.CACHE_NAME, key = "#id", sync = true)
   public Optional<ResponsePlanetDTO> getById(UUID id) {
-    return planetMapper.toOptionalDTO(planetsRepository.findById(id));
+    return planetsRepository.findAsDTOById(id);
   }
 
   @Transactional(readOnly = true)
-  @Cacheable(value = "planets", key = "#name")
+  @Cacheable(value = PlanetsCacheEvictor.CACHE_NAME, key = "#name", sync = true)
   public Optional<ResponsePlanetDTO> getByName(String name) {
-    return planetMapper.toOptionalDTO(planetsRepository.findByName(name));
+    return planetsRepository.findAsDTOByName(name);
+  }
+
+  private static String encodeCursor(String name) {
+    return Base64.getUrlEncoder().withoutPadding()
+        .encodeToString(name.getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Returns the name a cursor points past, or the empty string for the first page.
+   *
+   * @throws InvalidCursorException if the cursor is not valid URL-safe Base64
+   */
+  public static String decodeCursor(String cursor) {
+    if (cursor == null || cursor.isEmpty()) {
+      return "";
+    }
+
+    try {
+      return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+    } catch (IllegalArgumentException ex) {
+      throw new InvalidCursorException(cursor);
+    }
   }
 }
@@ -0,0 +1,138 @@
+package com.example.starwarsplanets.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import com.example.starwarsplanets.cache.PlanetsCacheEvictor;
+import com.example.starwarsplanets.config.MovieAppearancesIndexProperties;
+import com.example.starwarsplanets.repository.PlanetsJdbcRepository;
+import com.example.starwarsplanets.repository.PlanetsJdbcRepository.UpdatedPlanet;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Incremental refresh of the movie-appearance index. SWAPI is re-indexed with conditional
+ * requests, so unchanged pages are only revalidated, and the result is diffed against the index
+ * this node serves. Only the changed names are pushed to Redis; the full index is republished only
+ * when there is no published version to patch. Optionally, stored planets whose count changed, or
+ * whose count is unknown because SWAPI failed when they were created, are backfilled and evicted
+ * from the planets cache.
+ */
+@Service
+public class SwapiIndexRefresher {
+
+  private static final Logger logger = LoggerFactory.getLogger(SwapiIndexRefresher.class);
+
+  private final SwapiService swapiService;
+  private final PlanetsCacheService planetsCacheService;
+  private final MovieAppearancesSnapshotStore snapshotStore;
+  private final PlanetsJdbcRepository planetsJdbcRepository;
+  private final PlanetsCacheEvictor cacheEvictor;
+  private final boolean backfill;
+  private final AtomicBoolean running = new AtomicBoolean();
+
+  private final Counter changedKeys;
+  private final Counter backfilledRows;
+
+  public SwapiIndexRefresher(SwapiService swapiService, PlanetsCacheService planetsCacheService,
+      MovieAppearancesSnapshotStore snapshotStore, PlanetsJdbcRepository planetsJdbcRepository,
+      PlanetsCacheEvictor cacheEvictor, MovieAppearancesIndexProperties indexProperties,
+      MeterRegistry meterRegistry) {
+    this.swapiService = swapiService;
+    this.planetsCacheService = planetsCacheService;
+    this.snapshotStore = snapshotStore;
+    this.planetsJdbcRepository = planetsJdbcRepository;
+    this.cacheEvictor = cacheEvictor;
+    this.backfill = indexProperties.refresh().backfill();
+
+    this.changedKeys = Counter.builder("planets.index.refresh.changed.keys")
+        .description("Index entries added, changed or removed by refreshes")
+        .register(meterRegistry);
+    this.backfilledRows = Counter.builder("planets.index.refresh.backfilled.rows")
+        .description("Stored planets whose movie appearances were rewritten by refreshes")
+        .register(meterRegistry);
+  }
+
+  public record RefreshResult(int indexed, int changed, int removed, boolean republished,
+      int backfilled) {
+  }
+
+  /**
+   * Runs one refresh. Returns empty without doing anything if another refresh is in progress.
+   */
+  public Optional<RefreshResult> refresh() {
+    if (!running.compareAndSet(false, true)) {
+      logger.info("Movie appearances refresh already in progress, skipping");
+      return Optional.empty();
+    }
+
+    try {
+      Map<String, String> fresh = swapiService.indexPlanetsMovieAppearances();
+      if (fresh.isEmpty()) {
+        throw new IllegalStateException("SWAPI returned no planets");
+      }
+
+      Map<String, String> current = planetsCacheService.currentIndex();
+      Map<String, String> changed = new HashMap<>();
+      fresh.forEach((name, appearances) -> {
+        if (!appearances.equals(current.get(name))) {
+          changed.put(name, appearances);
+        }
+      });
+      Set<String> removed = new HashSet<>(current.keySet());
+      removed.removeAll(fresh.keySet());
+
+      boolean republished = !planetsCacheService.applyChanges(changed, removed);
+      if (republished) {
+        planetsCacheService.saveAll(fresh);
+      }
+      snapshotStore.save(fresh);
+      changedKeys.increment(changed.size() + removed.size());
+
+      int backfilled = backfill ? backfill(changed) + fillUnknown(fresh) : 0;
+      return Optional.of(new RefreshResult(fresh.size(), changed.size(), removed.size(),
+          republished, backfilled));
+    } finally {
+      running.set(false);
+    }
+  }
+
+  private int backfill(Map<String, String> changed) {
+    if (changed.isEmpty()) {
+      return 0;
+    }
+    return evict(planetsJdbcRepository.updateMovieAppearances(counts(changed)));
+  }
+
+  private int fillUnknown(Map<String, String> fresh) {
+    return evict(planetsJdbcRepository.fillUnknownMovieAppearances(counts(fresh)));
+  }
+
+  private static Map<String, Integer> counts(Map<String, String> appearances) {
+    Map<String, Integer> counts = HashMap.newHashMap(appearances.size());
+    appearances.forEach((name, count) -> counts.put(name, Integer.valueOf(count)));
+    return counts;
+  }
+
+  private int evict(List<UpdatedPlanet> updated) {
+    if (updated.isEmpty()) {
+      return 0;
+    }
+    List<Object> keys = new ArrayList<>(updated.size() * 2);
+    for (UpdatedPlanet planet : updated) {
+      keys.add(planet.id());
+      keys.add(planet.name());
+    }
+    cacheEvictor.evictAfterCommit(keys);
+    backfilledRows.increment(updated.size());
+    return updated.size();
+  }
+}
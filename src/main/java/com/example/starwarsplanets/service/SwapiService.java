@@ -2,51 +2,217 @@ package com.example.starwarsplanets.service;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import com.example.starwarsplanets.config.SwapiProperties;
 import com.example.starwarsplanets.dto.SwapiPlanetDTO;
 import com.example.starwarsplanets.dto.SwapiPlanetsResponseDTO;
 import java.util.Map;
 import java.util.HashMap;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import tools.jackson.databind.ObjectMapper;
 
 @Service
 public class SwapiService {
 
   private static final Logger logger = LoggerFactory.getLogger(SwapiService.class);
-  private static final String SWAPI_BASE_URL = "https://swapi.dev/api";
 
   private final RestClient restClient;
+  private final SwapiProperties swapiProperties;
+  private final ObjectMapper objectMapper;
+  private final Counter bytesFetched;
+  private final Counter notModifiedPages;
+  private final Counter emptyPages;
+  private final Counter modifiedPages;
 
-  public SwapiService(RestClient.Builder restClientBuilder) {
-    this.restClient = restClientBuilder.baseUrl(SWAPI_BASE_URL).build();
+  /** Validators and parsed body of the last full response per page, for conditional requests. */
+  private final Map<Integer, CachedPage> pageCache = new ConcurrentHashMap<>();
+
+  public SwapiService(RestClient swapiRestClient, SwapiProperties swapiProperties,
+      ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+    this.restClient = swapiRestClient;
+    this.swapiProperties = swapiProperties;
+    this.objectMapper = objectMapper;
+    this.bytesFetched = Counter.builder("swapi.fetch.bytes")
+        .description("Response body bytes downloaded from SWAPI planet pages").baseUnit("bytes")
+        .register(meterRegistry);
+    this.notModifiedPages = pageResponses(meterRegistry, "not-modified");
+    this.emptyPages = pageResponses(meterRegistry, "empty");
+    this.modifiedPages = pageResponses(meterRegistry, "modified");
+  }
+
+  private record CachedPage(String etag, long lastModified, SwapiPlanetsResponseDTO body) {
   }
 
+  /**
+   * Fetches the first page to learn the total count and page size, then fetches the remaining
+   * pages in parallel on virtual threads, at most {@code swapi.max-concurrency} at a time.
+   */
   private List<SwapiPlanetDTO> fetchAllPlanets() {
-    List<SwapiPlanetDTO> allPlanets = new ArrayList<>();
-    String nextUrl = "/planets/";
-
-    while (nextUrl != null) {
-      logger.info("Fetching planets from: {}", nextUrl);
-      SwapiPlanetsResponseDTO response =
-          restClient.get().uri(nextUrl).retrieve().body(SwapiPlanetsResponseDTO.class);
-
-      if (response != null && response.results() != null) {
-        allPlanets.addAll(response.results());
-        nextUrl = response.next() != null ? response.next().replace(SWAPI_BASE_URL, "") : null;
-      } else {
-        break;
+    SwapiPlanetsResponseDTO firstPage = fetchPage(1);
+    if (firstPage == null || firstPage.results() == null) {
+      return List.of();
+    }
+
+    List<SwapiPlanetDTO> allPlanets = new ArrayList<>(firstPage.results());
+    int pageSize = firstPage.results().size();
+    int pages = firstPage.next() == null || firstPage.count() == null || pageSize == 0 ? 1
+        : (int) Math.ceilDiv(firstPage.count(), pageSize);
+
+    if (pages > 1) {
+      Semaphore permits = new Semaphore(Math.max(1, swapiProperties.maxConcurrency()));
+      try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+        List<Future<SwapiPlanetsResponseDTO>> responses = new ArrayList<>(pages - 1);
+        for (int page = 2; page <= pages; page++) {
+          int pageNumber = page;
+          responses.add(executor.submit(() -> {
+            permits.acquire();
+            try {
+              return fetchPage(pageNumber);
+            } finally {
+              permits.release();
+            }
+          }));
+        }
+
+        for (Future<SwapiPlanetsResponseDTO> response : responses) {
+          SwapiPlanetsResponseDTO page = await(response);
+          if (page != null && page.results() != null) {
+            allPlanets.addAll(page.results());
+          }
+        }
       }
     }
 
-    logger.info("Fetched {} planets from SWAPI", allPlanets.size());
+    logger.info("Fetched {} planets from SWAPI ({} pages)", allPlanets.size(), pages);
     return allPlanets;
   }
 
+  /**
+   * Looks a single planet up with SWAPI's search. Returns its number of films, or empty if SWAPI
+   * has no planet with exactly that name. Not retried: it runs on the request path.
+   */
+  public Optional<Integer> findPlanetMovieAppearances(String name) {
+    SwapiPlanetsResponseDTO response = restClient.get().uri("/planets/?search={name}", name)
+        .retrieve().body(SwapiPlanetsResponseDTO.class);
+    if (response == null || response.results() == null) {
+      return Optional.empty();
+    }
+
+    return response.results().stream().filter(planet -> name.equals(planet.name())).findFirst()
+        .map(planet -> planet.films() != null ? planet.films().size() : 0);
+  }
+
+  private SwapiPlanetsResponseDTO fetchPage(int page) {
+    for (int attempt = 1;; attempt++) {
+      try {
+        logger.info("Fetching planets page {} (attempt {})", page, attempt);
+        return fetchPageConditionally(page);
+      } catch (RestClientException ex) {
+        if (attempt >= swapiProperties.maxAttempts() || !isRetryable(ex)) {
+          throw ex;
+        }
+        logger.warn("Fetching planets page {} failed, retrying: {}", page, ex.getMessage());
+        backoff(attempt);
+      }
+    }
+  }
+
+  /**
+   * Revalidates the page with the validators of the last full response. A 304 reuses the cached
+   * body, so an unchanged page costs one round trip and no parsing.
+   */
+  private SwapiPlanetsResponseDTO fetchPageConditionally(int page) {
+    CachedPage cached = pageCache.get(page);
+    ResponseEntity<byte[]> response = restClient.get().uri("/planets/?page={page}", page)
+        .headers(headers -> {
+          if (cached != null && cached.etag() != null) {
+            headers.setIfNoneMatch(cached.etag());
+          }
+          if (cached != null && cached.lastModified() >= 0) {
+            headers.setIfModifiedSince(cached.lastModified());
+          }
+        }).retrieve().toEntity(byte[].class);
+
+    if (cached != null && response.getStatusCode().isSameCodeAs(HttpStatus.NOT_MODIFIED)) {
+      notModifiedPages.increment();
+      return cached.body();
+    }
+
+    byte[] body = response.getBody();
+    if (body == null) {
+      emptyPages.increment();
+      return null;
+    }
+    modifiedPages.increment();
+    bytesFetched.increment(body.length);
+
+    SwapiPlanetsResponseDTO parsed = objectMapper.readValue(body, SwapiPlanetsResponseDTO.class);
+    HttpHeaders headers = response.getHeaders();
+    if (headers.getETag() != null || headers.getLastModified() >= 0) {
+      pageCache.put(page, new CachedPage(headers.getETag(), headers.getLastModified(), parsed));
+    } else {
+      pageCache.remove(page);
+    }
+    return parsed;
+  }
+
+  private static Counter pageResponses(MeterRegistry meterRegistry, String result) {
+    return Counter.builder("swapi.fetch.pages")
+        .description("SWAPI planet page fetches by whether the page had changed")
+        .tag("result", result).register(meterRegistry);
+  }
+
+  private static boolean isRetryable(RestClientException ex) {
+    return !(ex instanceof HttpClientErrorException clientError)
+        || clientError.getStatusCode().isSameCodeAs(HttpStatus.TOO_MANY_REQUESTS);
+  }
+
+  private void backoff(int attempt) {
+    try {
+      Thread.sleep(swapiProperties.retryBackoff().multipliedBy(attempt));
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while fetching SWAPI planets", ex);
+    }
+  }
+
+  private static <T> T await(Future<T> future) {
+    try {
+      return future.get();
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while fetching SWAPI planets", ex);
+    } catch (ExecutionException ex) {
+      if (ex.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      throw new IllegalStateException("Fetching SWAPI planets failed", ex.getCause());
+    }
+  }
+
   public Map<String, String> indexPlanetsMovieAppearances() {
-    List<SwapiPlanetDTO> planets = fetchAllPlanets();
-    Map<String, String> planetAppearances = new HashMap<>();
+    return indexPlanetsMovieAppearances(fetchAllPlanets());
+  }
+
+  /** Maps each planet name to its number of films. */
+  public static Map<String, String> indexPlanetsMovieAppearances(List<SwapiPlanetDTO> planets) {
+    Map<String, String> planetAppearances = HashMap.newHashMap(planets.size());
 
     for (SwapiPlanetDTO planet : planets) {
       planetAppearances.put(planet.name(), planet.films() != null ? String.valueOf(planet.films().size()) : "0");
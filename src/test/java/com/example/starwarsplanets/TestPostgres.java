@@ -0,0 +1,40 @@
+package com.example.starwarsplanets;
+
+import javax.sql.DataSource;
+import org.postgresql.ds.PGSimpleDataSource;
+import org.testcontainers.postgresql.PostgreSQLContainer;
+import org.testcontainers.utility.MountableFile;
+
+/**
+ * One Postgres container per test run, initialised with {@code init_scripts} like the Compose
+ * database, for the tests that need real SQL (COPY, trigram ranking, RETURNING, server-side
+ * cursors). Tests using it are annotated {@code @Testcontainers(disabledWithoutDocker = true)}, so
+ * they are skipped where Docker is not available.
+ */
+public final class TestPostgres {
+
+  private static final PostgreSQLContainer CONTAINER =
+      new PostgreSQLContainer("postgres:18.1-alpine3.23").withDatabaseName("star-wars-planets-db")
+          .withCopyFileToContainer(MountableFile.forHostPath("init_scripts"),
+              "/docker-entrypoint-initdb.d/");
+
+  private TestPostgres() {
+  }
+
+  /** The started container; stopped by Testcontainers when the test JVM exits. */
+  public static synchronized PostgreSQLContainer container() {
+    if (!CONTAINER.isRunning()) {
+      CONTAINER.start();
+    }
+    return CONTAINER;
+  }
+
+  public static DataSource dataSource() {
+    PostgreSQLContainer container = container();
+    PGSimpleDataSource dataSource = new PGSimpleDataSource();
+    dataSource.setUrl(container.getJdbcUrl());
+    dataSource.setUser(container.getUsername());
+    dataSource.setPassword(container.getPassword());
+    return dataSource;
+  }
+}
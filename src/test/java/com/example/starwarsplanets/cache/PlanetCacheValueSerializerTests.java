@@ -0,0 +1,71 @@
+package com.example.starwarsplanets.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.support.NullValue;
+import org.springframework.data.redis.serializer.JacksonJsonRedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+import com.example.starwarsplanets.dto.ResponsePlanetDTO;
+
+class PlanetCacheValueSerializerTests {
+
+  private final PlanetCacheValueSerializer serializer = new PlanetCacheValueSerializer();
+
+  private final ResponsePlanetDTO tatooine = new ResponsePlanetDTO(UUID.randomUUID().toString(),
+      "Tatooine", "desert", "arid", 5, LocalDateTime.of(2025, 1, 1, 12, 0, 42, 123_456_789),
+      LocalDateTime.of(2025, 3, 4, 5, 6, 7));
+
+  @Test
+  void roundTripsAPlanet() {
+    assertThat(serializer.deserialize(serializer.serialize(tatooine))).isEqualTo(tatooine);
+  }
+
+  @Test
+  void roundTripsMissingComponentsAndNonUuidIds() {
+    ResponsePlanetDTO partial =
+        new ResponsePlanetDTO("legacy-id", "Hoth ❄", null, "frozen", null, null, null);
+
+    assertThat(serializer.deserialize(serializer.serialize(partial))).isEqualTo(partial);
+  }
+
+  @Test
+  void mapsNullToAnEmptyPayload() {
+    assertThat(serializer.serialize(null)).isEmpty();
+    assertThat(serializer.deserialize(new byte[0])).isNull();
+  }
+
+  @Test
+  void rejectsUnknownVersionsAndTruncatedEntries() {
+    byte[] encoded = serializer.serialize(tatooine);
+    byte[] future = encoded.clone();
+    future[0] = PlanetCacheValueSerializer.VERSION + 1;
+
+    assertThatThrownBy(() -> serializer.deserialize(future))
+        .isInstanceOf(SerializationException.class).hasMessageContaining("version");
+    assertThatThrownBy(() -> serializer.deserialize(Arrays.copyOf(encoded, encoded.length - 4)))
+        .isInstanceOf(SerializationException.class);
+  }
+
+  @Test
+  void rejectsValuesThatAreNotPlanets() {
+    assertThatThrownBy(() -> serializer.serialize("Tatooine"))
+        .isInstanceOf(SerializationException.class);
+    assertThatThrownBy(() -> serializer.serialize(NullValue.INSTANCE))
+        .isInstanceOf(SerializationException.class);
+  }
+
+  @Test
+  void isSmallerThanTheJsonEncoding() {
+    byte[] json = new JacksonJsonRedisSerializer<>(Object.class).serialize(tatooine);
+    byte[] binary = serializer.serialize(tatooine);
+
+    // 3 header + 16 UUID + 9 name + 7 terrain + 5 climate + 1 appearances + 9 + 6 timestamps
+    assertThat(binary).hasSize(56);
+    assertThat(json.length).isGreaterThanOrEqualTo(180);
+  }
+}
@@ -0,0 +1,106 @@
+package com.example.starwarsplanets.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatNoException;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.scheduling.TaskScheduler;
+import com.example.starwarsplanets.config.ReadReplicaDataSource;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class PlanetsCacheEvictorTests {
+
+  private final Cache remote = mock(Cache.class);
+  private final CacheInvalidationBus invalidationBus = mock(CacheInvalidationBus.class);
+  private final PlanetsCollectionVersion collectionVersion = mock(PlanetsCollectionVersion.class);
+  private final TaskScheduler taskScheduler = mock(TaskScheduler.class);
+  private final ReadReplicaDataSource replica = mock(ReadReplicaDataSource.class);
+  private final com.github.benmanes.caffeine.cache.Cache<String, Object> local =
+      Caffeine.newBuilder().build();
+  private PlanetsCacheEvictor evictor;
+
+  @BeforeEach
+  @SuppressWarnings("unchecked")
+  void setUp() {
+    TwoLevelCache cache = new TwoLevelCache(PlanetsCacheEvictor.CACHE_NAME, local, remote,
+        invalidationBus, new SimpleMeterRegistry());
+    CacheManager cacheManager = mock(CacheManager.class);
+    when(cacheManager.getCache(PlanetsCacheEvictor.CACHE_NAME)).thenReturn(cache);
+
+    when(replica.stalenessBound()).thenReturn(Duration.ofSeconds(7));
+    ObjectProvider<ReadReplicaDataSource> readReplica = mock(ObjectProvider.class);
+    when(readReplica.getIfAvailable()).thenReturn(replica);
+    when(readReplica.getObject()).thenReturn(replica);
+    ObjectProvider<TaskScheduler> scheduler = mock(ObjectProvider.class);
+    when(scheduler.getIfUnique()).thenReturn(taskScheduler);
+    when(scheduler.getObject()).thenReturn(taskScheduler);
+
+    evictor = new PlanetsCacheEvictor(cacheManager, collectionVersion, readReplica, scheduler);
+  }
+
+  @Test
+  void bumpsTheVersionAndSchedulesTheRepeatWhenRedisIsDown() {
+    doThrow(new RedisConnectionFailureException("Unable to connect to Redis")).when(remote)
+        .evict(any());
+    doThrow(new RedisConnectionFailureException("Unable to connect to Redis")).when(remote)
+        .clear();
+    local.put("Tatooine", "cached");
+
+    assertThatNoException()
+        .isThrownBy(() -> evictor.evictAfterCommit(UUID.randomUUID(), "Tatooine"));
+    assertThatNoException().isThrownBy(evictor::clearAfterCommit);
+
+    assertThat(local.getIfPresent("Tatooine")).isNull();
+    verify(invalidationBus).publishEvict(PlanetsCacheEvictor.CACHE_NAME, "Tatooine");
+    verify(invalidationBus).publishClear(PlanetsCacheEvictor.CACHE_NAME);
+    verify(collectionVersion, times(2)).bump();
+    verify(taskScheduler, atLeastOnce())
+        .schedule(any(Runnable.class), any(Instant.class));
+  }
+
+  @Test
+  void coalescesTheReplicaRepeatsOfABurstIntoOneTask() {
+    when(replica.stalenessBound()).thenReturn(Duration.ZERO);
+    UUID tatooine = UUID.randomUUID();
+    UUID hoth = UUID.randomUUID();
+
+    evictor.evictAfterCommit(tatooine, "Tatooine");
+    evictor.evictAfterCommit(hoth, "Hoth");
+    evictor.evictAfterCommit(tatooine, "Tatooine");
+
+    ArgumentCaptor<Runnable> repeat = ArgumentCaptor.forClass(Runnable.class);
+    verify(taskScheduler).schedule(repeat.capture(), any(Instant.class));
+    verify(collectionVersion, times(3)).bump();
+    clearInvocations(remote);
+
+    repeat.getValue().run();
+
+    verify(remote).evict(tatooine);
+    verify(remote).evict("Tatooine");
+    verify(remote).evict(hoth);
+    verify(remote).evict("Hoth");
+    verify(collectionVersion, times(4)).bump();
+    verify(taskScheduler, times(1)).schedule(any(Runnable.class), any(Instant.class));
+
+    evictor.evictAfterCommit(hoth, "Hoth");
+    verify(taskScheduler, times(2)).schedule(any(Runnable.class), any(Instant.class));
+  }
+}
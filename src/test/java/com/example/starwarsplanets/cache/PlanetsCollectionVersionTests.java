@@ -0,0 +1,65 @@
+package com.example.starwarsplanets.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+class PlanetsCollectionVersionTests {
+
+  @SuppressWarnings("unchecked")
+  private final RedisTemplate<String, Object> redisTemplate = mock(RedisTemplate.class);
+  @SuppressWarnings("unchecked")
+  private final ValueOperations<String, Object> values = mock(ValueOperations.class);
+  private final PlanetsCollectionVersion collectionVersion =
+      new PlanetsCollectionVersion(redisTemplate);
+
+  @BeforeEach
+  void setUp() {
+    when(redisTemplate.opsForValue()).thenReturn(values);
+    when(values.get(PlanetsCollectionVersion.VERSION_KEY)).thenReturn("42");
+  }
+
+  @Test
+  void deletesTheVersionWhenABumpFails() {
+    when(values.increment(anyString()))
+        .thenThrow(new RedisConnectionFailureException("timeout"));
+
+    collectionVersion.bump();
+
+    verify(redisTemplate).delete(PlanetsCollectionVersion.VERSION_KEY);
+    assertThat(collectionVersion.current()).hasValue(42);
+  }
+
+  @Test
+  void reportsNoVersionUntilALostBumpIsReset() {
+    when(values.increment(anyString()))
+        .thenThrow(new RedisConnectionFailureException("timeout"));
+    when(redisTemplate.delete(PlanetsCollectionVersion.VERSION_KEY))
+        .thenThrow(new RedisConnectionFailureException("timeout"))
+        .thenThrow(new RedisConnectionFailureException("timeout"))
+        .thenReturn(true);
+
+    collectionVersion.bump();
+
+    assertThat(collectionVersion.current()).isEmpty();
+    assertThat(collectionVersion.current()).hasValue(42);
+    assertThat(collectionVersion.current()).hasValue(42);
+  }
+
+  @Test
+  void leavesTheVersionAloneWhenABumpSucceeds() {
+    collectionVersion.bump();
+
+    verify(values).increment(PlanetsCollectionVersion.VERSION_KEY);
+    verify(redisTemplate, never()).delete(anyString());
+  }
+}
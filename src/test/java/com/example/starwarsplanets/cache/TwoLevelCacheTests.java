@@ -0,0 +1,176 @@
+package com.example.starwarsplanets.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class TwoLevelCacheTests {
+
+  private static final int PLANETS = 200;
+  private static final int OPERATIONS = 50_000;
+  private static final double WRITE_RATIO = 0.05;
+
+  private final Map<String, Long> database = new ConcurrentHashMap<>();
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private TwoLevelCache cache;
+
+  @BeforeEach
+  void setUp() {
+    cache = new TwoLevelCache("planets", Caffeine.newBuilder().maximumSize(10_000).build(),
+        new ConcurrentMapCache("planets"), mock(CacheInvalidationBus.class), meterRegistry);
+    for (int i = 0; i < PLANETS; i++) {
+      database.put(key(i), 0L);
+    }
+  }
+
+  @Test
+  void keyLevelEvictionKeepsHitRatioUpUnderMixedTraffic() {
+    double targeted = hitRatio((c, key) -> c.evict(key));
+    double allEntries = hitRatio((c, key) -> c.clear());
+
+    assertThat(targeted).isGreaterThan(0.9);
+    assertThat(targeted).isGreaterThan(allEntries + 0.3);
+  }
+
+  @Test
+  void readThroughLoadIsDroppedWhenKeyWasEvictedDuringLoad() {
+    long loaded = cache.get("Tatooine", () -> {
+      long staleValue = database.getOrDefault("Tatooine", 0L);
+      Thread writer = Thread.ofPlatform().start(() -> {
+        database.put("Tatooine", 1L);
+        cache.evictLocal("Tatooine");
+      });
+      writer.join();
+      return staleValue;
+    });
+
+    assertThat(loaded).isZero();
+    assertThat(cache.get("Tatooine")).isNull();
+  }
+
+  @Test
+  void failedLoadLeavesNothingBehindForLaterPuts() {
+    assertThatThrownBy(() -> cache.get("Tatooine", () -> {
+      throw new IllegalStateException("database down");
+    })).isInstanceOf(Cache.ValueRetrievalException.class);
+
+    cache.put("Tatooine", 1L);
+
+    assertThat(cache.get("Tatooine").get()).isEqualTo(1L);
+  }
+
+  @Test
+  void synchronizedReadsCountRemoteHitsAndMisses() {
+    assertThat(cache.get("Tatooine", () -> 1L)).isEqualTo(1L);
+    cache.evictLocal("Tatooine");
+    assertThat(cache.get("Tatooine", () -> 2L)).isEqualTo(1L);
+
+    assertThat(remoteRequests("miss")).isEqualTo(1);
+    assertThat(remoteRequests("hit")).isEqualTo(1);
+  }
+
+  @Test
+  void probesTheLocalTierOnlyWithoutCountingRequests() {
+    assertThat(cache.get("Tatooine", () -> 1L)).isEqualTo(1L);
+    assertThat(cache.isCachedLocally("Tatooine")).isTrue();
+
+    cache.evictLocal("Tatooine");
+    assertThat(cache.isCachedLocally("Tatooine")).isFalse();
+    assertThat(cache.isCachedLocally("Hoth")).isFalse();
+
+    assertThat(remoteRequests("miss")).isEqualTo(1);
+    assertThat(remoteRequests("hit")).isZero();
+  }
+
+  @Test
+  void concurrentReadsNeverLeaveStaleValuesBehind() throws InterruptedException {
+    int threads = 8;
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    CountDownLatch done = new CountDownLatch(threads);
+
+    for (int t = 0; t < threads; t++) {
+      long seed = t;
+      executor.execute(() -> {
+        Random random = new Random(seed);
+        for (int i = 0; i < OPERATIONS / threads; i++) {
+          String key = key(random.nextInt(20));
+          if (random.nextDouble() < 0.2) {
+            database.merge(key, 1L, Long::sum);
+            cache.evict(key);
+          } else {
+            readThrough(key);
+          }
+        }
+        done.countDown();
+      });
+    }
+
+    assertThat(done.await(30, TimeUnit.SECONDS)).isTrue();
+    executor.shutdown();
+
+    for (int i = 0; i < 20; i++) {
+      Cache.ValueWrapper cached = cache.get(key(i));
+      if (cached != null) {
+        assertThat(cached.get()).isEqualTo(database.get(key(i)));
+      }
+    }
+  }
+
+  private double hitRatio(BiConsumer<Cache, String> invalidation) {
+    cache.clear();
+    Random random = new Random(42);
+    AtomicLong hits = new AtomicLong();
+    AtomicLong reads = new AtomicLong();
+
+    for (int i = 0; i < OPERATIONS; i++) {
+      String key = key(random.nextInt(PLANETS));
+      if (random.nextDouble() < WRITE_RATIO) {
+        database.merge(key, 1L, Long::sum);
+        invalidation.accept(cache, key);
+      } else {
+        reads.incrementAndGet();
+        if (readThrough(key)) {
+          hits.incrementAndGet();
+        }
+      }
+    }
+
+    return (double) hits.get() / reads.get();
+  }
+
+  /** Mirrors what {@code @Cacheable(sync = true)} does; returns whether the value was cached. */
+  private boolean readThrough(String key) {
+    AtomicBoolean loaded = new AtomicBoolean();
+    cache.get(key, () -> {
+      loaded.set(true);
+      return database.get(key);
+    });
+    return !loaded.get();
+  }
+
+  private double remoteRequests(String result) {
+    return meterRegistry.get("planets.cache.requests").tag("tier", "remote")
+        .tag("result", result).counter().count();
+  }
+
+  private static String key(int i) {
+    return "planet-" + i;
+  }
+}
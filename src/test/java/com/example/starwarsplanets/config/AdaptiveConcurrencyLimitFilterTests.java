@@ -0,0 +1,210 @@
+package com.example.starwarsplanets.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import com.example.starwarsplanets.cache.CacheInvalidationBus;
+import com.example.starwarsplanets.cache.TwoLevelCacheManager;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import tools.jackson.databind.json.JsonMapper;
+
+class AdaptiveConcurrencyLimitFilterTests {
+
+  private static final UUID TATOOINE_ID =
+      UUID.fromString("123e4567-e89b-12d3-a456-426614174000");
+
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private final ConcurrentMapCacheManager remoteCacheManager =
+      new ConcurrentMapCacheManager("planets");
+  private final TwoLevelCacheManager cacheManager =
+      new TwoLevelCacheManager(remoteCacheManager, mock(CacheInvalidationBus.class),
+          meterRegistry, new PlanetsCacheProperties.Local(100, Duration.ofMinutes(1)));
+
+  @Test
+  void classifiesCachedLookupsDatabaseReadsAndWrites() {
+    cacheManager.getCache("planets").put("Tatooine", Optional.empty());
+    cacheManager.getCache("planets").put(TATOOINE_ID.toString(), Optional.empty());
+    AdaptiveConcurrencyLimitFilter filter = filter(limit(10, 1));
+
+    assertThat(filter.classify(get("/v1/planets/search", "name", "Tatooine")))
+        .isEqualTo(AdaptiveConcurrencyLimitFilter.RequestClass.CACHED_READ);
+    assertThat(filter.classify(
+        get("/v1/planets/search", "id", TATOOINE_ID.toString().toUpperCase())))
+        .isEqualTo(AdaptiveConcurrencyLimitFilter.RequestClass.CACHED_READ);
+    assertThat(filter.classify(get("/v1/planets", "page")))
+        .isEqualTo(AdaptiveConcurrencyLimitFilter.RequestClass.DATABASE_READ);
+    assertThat(filter.classify(get("/v1/planets/search", "prefix")))
+        .isEqualTo(AdaptiveConcurrencyLimitFilter.RequestClass.DATABASE_READ);
+    assertThat(filter.classify(new MockHttpServletRequest("DELETE", "/v1/planets/42")))
+        .isEqualTo(AdaptiveConcurrencyLimitFilter.RequestClass.WRITE);
+  }
+
+  @Test
+  void limitsLookupsThatMissTheCacheAsDatabaseReads() {
+    AdaptiveConcurrencyLimitFilter filter = filter(limit(10, 1));
+
+    assertThat(filter.classify(get("/v1/planets/search", "name", "Hoth")))
+        .isEqualTo(AdaptiveConcurrencyLimitFilter.RequestClass.DATABASE_READ);
+    assertThat(filter.classify(get("/v1/planets/search", "id", UUID.randomUUID().toString())))
+        .isEqualTo(AdaptiveConcurrencyLimitFilter.RequestClass.DATABASE_READ);
+    assertThat(filter.classify(get("/v1/planets/search", "id", "not-a-uuid")))
+        .isEqualTo(AdaptiveConcurrencyLimitFilter.RequestClass.DATABASE_READ);
+  }
+
+  @Test
+  void classifiesFromTheLocalTierWithoutGoingToRedis() {
+    remoteCacheManager.getCache("planets").put("Bespin", Optional.empty());
+    AdaptiveConcurrencyLimitFilter filter = filter(limit(10, 1));
+
+    assertThat(filter.classify(get("/v1/planets/search", "name", "Bespin")))
+        .isEqualTo(AdaptiveConcurrencyLimitFilter.RequestClass.DATABASE_READ);
+    assertThat(meterRegistry.get("planets.cache.requests").tag("tier", "remote")
+        .tag("result", "hit").counter().count()).isZero();
+  }
+
+  @Test
+  void rejectsOverTheLimitWhileCachedLookupsKeepBeingServed() throws Exception {
+    cacheManager.getCache("planets").put("Tatooine", Optional.empty());
+    AdaptiveConcurrencyLimitFilter filter = filter(limit(1, 1));
+    MockHttpServletResponse missed = new MockHttpServletResponse();
+    MockHttpServletResponse shed = new MockHttpServletResponse();
+    MockHttpServletResponse lookup = new MockHttpServletResponse();
+
+    // The second page request and the lookup arrive while the first page request is in flight.
+    filter.doFilter(get("/v1/planets", "page"), new MockHttpServletResponse(),
+        new MockFilterChain(new HttpServlet() {
+          @Override
+          protected void doGet(HttpServletRequest request, HttpServletResponse response)
+              throws ServletException, IOException {
+            filter.doFilter(get("/v1/planets", "page"), shed, new MockFilterChain());
+            filter.doFilter(get("/v1/planets/search", "name", "Tatooine"), lookup,
+                new MockFilterChain());
+            filter.doFilter(get("/v1/planets/search", "name", "Hoth"), missed,
+                new MockFilterChain());
+          }
+        }));
+
+    assertThat(shed.getStatus()).isEqualTo(429);
+    assertThat(shed.getHeader("Retry-After")).isEqualTo("1");
+    assertThat(shed.getContentAsString()).contains("\"status\":429");
+    assertThat(lookup.getStatus()).isEqualTo(200);
+    assertThat(missed.getStatus()).isEqualTo(429);
+    assertThat(meterRegistry.get("planets.concurrency.rejected").tag("class", "database-read")
+        .counter().count()).isEqualTo(2);
+    assertThat(meterRegistry.get("planets.concurrency.in-flight").tag("class", "database-read")
+        .gauge().value()).isZero();
+  }
+
+  @Test
+  void growsWhileFastAndBacksOffWhenSlowOrOverloaded() {
+    AtomicLong clock = new AtomicLong();
+    AimdLimiter limiter = new AimdLimiter(
+        new ConcurrencyLimitProperties.Limit(2, 1, 4, Duration.ofMillis(100)), 0.5, clock::get);
+
+    for (int i = 0; i < 5; i++) {
+      assertThat(limiter.tryAcquire()).isTrue();
+      assertThat(limiter.tryAcquire()).isTrue();
+      limiter.release(TimeUnit.MILLISECONDS.toNanos(10), false);
+      limiter.release(TimeUnit.MILLISECONDS.toNanos(10), false);
+    }
+    assertThat(limiter.limit()).isEqualTo(4);
+
+    limiter.tryAcquire();
+    limiter.release(TimeUnit.MILLISECONDS.toNanos(500), false);
+    assertThat(limiter.limit()).isEqualTo(2);
+    clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(100));
+    limiter.tryAcquire();
+    limiter.release(TimeUnit.MILLISECONDS.toNanos(10), true);
+    assertThat(limiter.limit()).isEqualTo(1);
+  }
+
+  @Test
+  void backsOffOnceForSlowRequestsThatFinishTogether() throws Exception {
+    AtomicLong clock = new AtomicLong();
+    AimdLimiter limiter = new AimdLimiter(
+        new ConcurrencyLimitProperties.Limit(40, 1, 40, Duration.ofMillis(100)), 0.9, clock::get);
+    int requests = 32;
+    for (int i = 0; i < requests; i++) {
+      assertThat(limiter.tryAcquire()).isTrue();
+    }
+
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    CountDownLatch start = new CountDownLatch(1);
+    List<Future<?>> releases = new ArrayList<>();
+    for (int i = 0; i < requests; i++) {
+      releases.add(executor.submit(() -> {
+        start.await();
+        limiter.release(TimeUnit.MILLISECONDS.toNanos(500), false);
+        return null;
+      }));
+    }
+    start.countDown();
+    for (Future<?> release : releases) {
+      release.get(5, TimeUnit.SECONDS);
+    }
+    executor.shutdown();
+
+    assertThat(limiter.limit()).isEqualTo(36);
+    assertThat(limiter.inFlight()).isZero();
+
+    clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(100));
+    limiter.tryAcquire();
+    limiter.release(TimeUnit.MILLISECONDS.toNanos(500), false);
+    assertThat(limiter.limit()).isEqualTo(32);
+  }
+
+  @Test
+  void doesNotGrowWhileMostlyIdle() {
+    AimdLimiter limiter = new AimdLimiter(
+        new ConcurrencyLimitProperties.Limit(10, 1, 100, Duration.ofMillis(100)), 0.9);
+
+    for (int i = 0; i < 20; i++) {
+      limiter.tryAcquire();
+      limiter.release(TimeUnit.MILLISECONDS.toNanos(1), false);
+    }
+
+    assertThat(limiter.limit()).isEqualTo(10);
+  }
+
+  private AdaptiveConcurrencyLimitFilter filter(ConcurrencyLimitProperties.Limit databaseReads) {
+    return new AdaptiveConcurrencyLimitFilter(
+        new ConcurrencyLimitProperties(true, 0.9, Duration.ofSeconds(1), limit(10, 1),
+            databaseReads, limit(10, 1)),
+        cacheManager, JsonMapper.builder().build(), meterRegistry);
+  }
+
+  private static ConcurrencyLimitProperties.Limit limit(int initial, int min) {
+    return new ConcurrencyLimitProperties.Limit(initial, min, initial, Duration.ofSeconds(1));
+  }
+
+  private static MockHttpServletRequest get(String path, String parameter) {
+    return get(path, parameter, "1");
+  }
+
+  private static MockHttpServletRequest get(String path, String parameter, String value) {
+    MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+    request.setParameter(parameter, value);
+    return request;
+  }
+}
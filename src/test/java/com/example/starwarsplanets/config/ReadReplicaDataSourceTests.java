@@ -0,0 +1,87 @@
+package com.example.starwarsplanets.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class ReadReplicaDataSourceTests {
+
+  private final DataSource primary = mock(DataSource.class);
+  private final DataSource replica = mock(DataSource.class);
+  private final Connection primaryConnection = mock(Connection.class);
+  private final Connection replicaConnection = mock(Connection.class);
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+  private Double replicaLag;
+  private ReadReplicaDataSource dataSource;
+
+  @BeforeEach
+  void setUp() throws SQLException {
+    when(primary.getConnection()).thenReturn(primaryConnection);
+    when(replica.getConnection()).thenReturn(replicaConnection);
+    dataSource = new ReadReplicaDataSource(primary, replica, Duration.ofSeconds(5),
+        Duration.ofSeconds(2), meterRegistry) {
+      @Override
+      double queryLagSeconds() {
+        if (replicaLag == null) {
+          throw new DataAccessResourceFailureException("replica down");
+        }
+        return replicaLag;
+      }
+    };
+  }
+
+  @Test
+  void usesTheReplicaOnlyOnceAHealthCheckPassed() throws SQLException {
+    assertThat(dataSource.getConnection()).isSameAs(primaryConnection);
+
+    replicaLag = 0.2;
+    dataSource.checkReplica();
+
+    assertThat(dataSource.getConnection()).isSameAs(replicaConnection);
+    assertThat(meterRegistry.get("planets.datasource.read-only.connections")
+        .tag("target", "replica").counter().count()).isEqualTo(1);
+  }
+
+  @Test
+  void fallsBackToThePrimaryWhileTheReplicaLagsOrIsDown() throws SQLException {
+    replicaLag = 0.0;
+    dataSource.checkReplica();
+
+    replicaLag = 12.0;
+    dataSource.checkReplica();
+    assertThat(dataSource.getConnection()).isSameAs(primaryConnection);
+    assertThat(meterRegistry.get("planets.datasource.replica.lag").gauge().value())
+        .isEqualTo(12.0);
+
+    replicaLag = 1.0;
+    dataSource.checkReplica();
+    assertThat(dataSource.isUsable()).isTrue();
+
+    replicaLag = null;
+    dataSource.checkReplica();
+    assertThat(dataSource.getConnection()).isSameAs(primaryConnection);
+    assertThat(meterRegistry.get("planets.datasource.replica.usable").gauge().value()).isZero();
+  }
+
+  @Test
+  void fallsBackToThePrimaryWhenNoReplicaConnectionIsAvailable() throws SQLException {
+    replicaLag = 0.0;
+    dataSource.checkReplica();
+    when(replica.getConnection())
+        .thenThrow(new SQLTransientConnectionException("replica - Connection is not available"));
+
+    assertThat(dataSource.getConnection()).isSameAs(primaryConnection);
+    assertThat(dataSource.isUsable()).isFalse();
+  }
+}
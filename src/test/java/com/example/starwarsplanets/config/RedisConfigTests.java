@@ -0,0 +1,23 @@
+package com.example.starwarsplanets.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.support.NullValue;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+
+class RedisConfigTests {
+
+  @Test
+  void keepsCachedMissesForTheNegativeTtlOnly() {
+    RedisCacheWriter.TtlFunction ttl = RedisConfig.entryTtl(new PlanetsCacheProperties(
+        Duration.ofMinutes(10), Duration.ofSeconds(30),
+        new PlanetsCacheProperties.Local(100, Duration.ofMinutes(1)), "invalidations"));
+
+    assertThat(ttl.getTimeToLive("Tatooine", "planet"))
+        .isEqualTo(Duration.ofMinutes(10));
+    assertThat(ttl.getTimeToLive("Hoth", null)).isEqualTo(Duration.ofSeconds(30));
+    assertThat(ttl.getTimeToLive("Hoth", NullValue.INSTANCE)).isEqualTo(Duration.ofSeconds(30));
+  }
+}
@@ -0,0 +1,72 @@
+package com.example.starwarsplanets.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import com.example.starwarsplanets.dto.ResponsePlanetDTO;
+import com.example.starwarsplanets.service.PlanetFacetIndex;
+
+class PlanetETagsTests {
+
+  private final String id = UUID.randomUUID().toString();
+  private final LocalDateTime updatedAt = LocalDateTime.of(2025, 1, 1, 12, 0, 0, 123_000);
+
+  @Test
+  void planetTagFollowsTheRowVersion() {
+    String tag = PlanetETags.of(planet(updatedAt)).orElseThrow();
+
+    assertThat(tag).startsWith("\"" + id).endsWith("\"");
+    assertThat(PlanetETags.of(planet(updatedAt))).contains(tag);
+    assertThat(PlanetETags.of(planet(updatedAt.plusNanos(1_000)))).isNotEqualTo(tag);
+    assertThat(PlanetETags.of(planet(null))).isEmpty();
+  }
+
+  @Test
+  void collectionTagIdentifiesVersionAndSelection() {
+    String tag = PlanetETags.ofCollection(7, "page", 0, 20);
+
+    assertThat(tag).matches("\"v7-[A-Za-z0-9_-]{22}\"");
+    assertThat(PlanetETags.ofCollection(7, "page", 0, 20)).isEqualTo(tag);
+    assertThat(PlanetETags.ofCollection(8, "page", 0, 20)).isNotEqualTo(tag);
+    assertThat(PlanetETags.ofCollection(7, "page", 1, 20)).isNotEqualTo(tag);
+  }
+
+  @Test
+  void collectionTagHashesRawParameters() {
+    String tag = PlanetETags.ofCollection(7, "cursor", "Bespin\" W/\"x, y", 20);
+
+    assertThat(tag).matches("\"v7-[A-Za-z0-9_-]{22}\"");
+  }
+
+  @Test
+  void collectionTagIdentifiesTheNormalizedFilter() {
+    Set<String> desert = PlanetFacetIndex.normalize(List.of("Desert"));
+    Set<String> desertAndIce = PlanetFacetIndex.normalize(List.of("desert, ice"));
+
+    assertThat(PlanetETags.ofCollection(7, "page", 0, 20, desert, desertAndIce, "any"))
+        .isEqualTo(PlanetETags.ofCollection(7, "page", 0, 20, desert,
+            PlanetFacetIndex.normalize(List.of("ICE", " desert")), "any"))
+        .isNotEqualTo(PlanetETags.ofCollection(7, "page", 0, 20, desertAndIce, desert, "any"))
+        .isNotEqualTo(PlanetETags.ofCollection(7, "page", 0, 20, desert, desertAndIce, "all"))
+        .isNotEqualTo(PlanetETags.ofCollection(7, "page", 0, 20,
+            Set.of("desert, ice"), desert, "any"));
+  }
+
+  @Test
+  void contentTagChangesWithAnyRowOfThePage() {
+    String tag = PlanetETags.ofContent(List.of(planet(updatedAt)), 1L, 0, 20);
+
+    assertThat(PlanetETags.ofContent(List.of(planet(updatedAt)), 1L, 0, 20)).isEqualTo(tag);
+    assertThat(PlanetETags.ofContent(List.of(planet(updatedAt.plusSeconds(1))), 1L, 0, 20))
+        .isNotEqualTo(tag);
+    assertThat(PlanetETags.ofContent(List.of(planet(updatedAt)), 2L, 0, 20)).isNotEqualTo(tag);
+  }
+
+  private ResponsePlanetDTO planet(LocalDateTime updatedAt) {
+    return new ResponsePlanetDTO(id, "Tatooine", "desert", "arid", 5, updatedAt, updatedAt);
+  }
+}
@@ -0,0 +1,104 @@
+package com.example.starwarsplanets.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.TimeZone;
+import java.util.UUID;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import com.example.starwarsplanets.TestPostgres;
+import com.example.starwarsplanets.dto.ResponsePlanetDTO;
+import com.example.starwarsplanets.entity.Planet;
+
+/**
+ * Single-statement writes against Postgres. The JVM runs in a zone other than UTC here, so
+ * timestamps bound in the JVM zone instead of UTC (as Hibernate binds them) would show up.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class PlanetsJdbcRepositoryTests {
+
+  private final TimeZone defaultTimeZone = TimeZone.getDefault();
+  private JdbcTemplate jdbcTemplate;
+  private PlanetsJdbcRepository repository;
+
+  @BeforeEach
+  void setUp() {
+    TimeZone.setDefault(TimeZone.getTimeZone("America/Sao_Paulo"));
+    jdbcTemplate = new JdbcTemplate(TestPostgres.dataSource());
+    repository = new PlanetsJdbcRepository(jdbcTemplate, 20);
+  }
+
+  @AfterEach
+  void tearDown() {
+    jdbcTemplate.update("TRUNCATE planets");
+    TimeZone.setDefault(defaultTimeZone);
+  }
+
+  @Test
+  void insertsOnceAndStoresTimestampsInUtc() {
+    LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+    Planet tatooine = planet("Tatooine", now);
+
+    assertThat(repository.insertIfAbsent(tatooine)).isTrue();
+    assertThat(repository.insertIfAbsent(planet("Tatooine", now))).isFalse();
+
+    assertThat(tatooine.getCreatedAt()).isEqualTo(now);
+    assertThat(tatooine.getUpdatedAt()).isEqualTo(now);
+    LocalDateTime stored = jdbcTemplate.queryForObject(
+        "SELECT created_at::text FROM planets WHERE id = ?",
+        (rs, rowNum) -> LocalDateTime.parse(rs.getString(1).replace(' ', 'T')),
+        tatooine.getId());
+    assertThat(stored).isEqualTo(
+        now.atZone(ZoneId.systemDefault()).withZoneSameInstant(ZoneOffset.UTC).toLocalDateTime());
+    assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM planets", Long.class))
+        .isEqualTo(1);
+  }
+
+  @Test
+  void deletesAndReturnsTheName() {
+    Planet hoth = planet("Hoth", LocalDateTime.now().truncatedTo(ChronoUnit.MICROS));
+    repository.insertIfAbsent(hoth);
+
+    assertThat(repository.deleteById(hoth.getId())).hasValue("Hoth");
+    assertThat(repository.deleteById(hoth.getId())).isEmpty();
+    assertThat(repository.deleteById(UUID.randomUUID())).isEmpty();
+  }
+
+  @Test
+  void pagesTheGivenIdsInTheDatabaseNameOrder() {
+    LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+    List<Planet> planets = Stream.of("bespin", "Alderaan", "endor", "Dagobah", "hoth")
+        .map(name -> planet(name, now)).toList();
+    planets.forEach(repository::insertIfAbsent);
+    List<UUID> ids = planets.stream().filter(planet -> !planet.getName().equals("endor"))
+        .map(Planet::getId).toList();
+    List<String> ordered = jdbcTemplate.queryForList(
+        "SELECT name FROM planets WHERE name <> 'endor' ORDER BY name", String.class);
+
+    List<ResponsePlanetDTO> page = repository.findPageByIdIn(ids, 1, 2);
+
+    assertThat(page).extracting(ResponsePlanetDTO::name).containsExactlyElementsOf(
+        ordered.subList(1, 3));
+    assertThat(page.getFirst().movieAppearances()).isEqualTo(5);
+    assertThat(page.getFirst().createdAt()).isEqualTo(now);
+    assertThat(repository.findPageByIdIn(ids, 4, 2)).isEmpty();
+  }
+
+  private static Planet planet(String name, LocalDateTime at) {
+    Planet planet = new Planet(name, "desert", "arid");
+    planet.setId(UUID.randomUUID());
+    planet.setMovieApppearances("5");
+    planet.setCreatedAt(at);
+    planet.setUpdatedAt(at);
+    return planet;
+  }
+}
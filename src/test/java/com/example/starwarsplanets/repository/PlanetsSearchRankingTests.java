@@ -0,0 +1,68 @@
+package com.example.starwarsplanets.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import com.example.starwarsplanets.TestPostgres;
+import com.example.starwarsplanets.dto.ResponsePlanetDTO;
+
+/** Ranking of prefix and fuzzy search against Postgres with the pg_trgm indexes installed. */
+@Testcontainers(disabledWithoutDocker = true)
+class PlanetsSearchRankingTests {
+
+  private JdbcTemplate jdbcTemplate;
+  private PlanetsSearchRepository repository;
+
+  @BeforeEach
+  void setUp() {
+    jdbcTemplate = new JdbcTemplate(TestPostgres.dataSource());
+    repository = new PlanetsSearchRepository(jdbcTemplate);
+    for (String name : List.of("Tatooine II", "Tatooine", "Tatoo", "Taris", "Ta_Kor",
+        "Alderaan")) {
+      jdbcTemplate.update("""
+          INSERT INTO planets (id, name, terrain, climate, movie_appearances, created_at, updated_at)
+          VALUES (gen_random_uuid(), ?, 'desert', 'arid', 0, now(), now())""", name);
+    }
+  }
+
+  @AfterEach
+  void tearDown() {
+    jdbcTemplate.update("TRUNCATE planets");
+  }
+
+  @Test
+  void ranksThePrefixMatchExactFirstThenShorterNames() {
+    assertThat(names(repository.findByNamePrefix(" TATOO ", 10)))
+        .containsExactly("Tatoo", "Tatooine", "Tatooine II");
+    assertThat(names(repository.findByNamePrefix("tatoo", 2)))
+        .containsExactly("Tatoo", "Tatooine");
+  }
+
+  @Test
+  void matchesLikeWildcardsLiterally() {
+    assertThat(names(repository.findByNamePrefix("ta_", 10))).containsExactly("Ta_Kor");
+    assertThat(repository.findByNamePrefix("%", 10)).isEmpty();
+  }
+
+  @Test
+  void ranksFuzzyMatchesBySimilarity() {
+    assertThat(names(repository.findByNameSimilarTo("tatoine", 10)))
+        .containsExactly("Tatooine", "Tatooine II", "Tatoo");
+  }
+
+  @Test
+  void ranksPrefixMatchesBeforeMoreSimilarNames() {
+    // "tatooine" is more similar to the query, but only "Tatooine II" starts with it.
+    assertThat(names(repository.findByNameSimilarTo("Tatooine I", 10)))
+        .containsExactly("Tatooine II", "Tatooine", "Tatoo");
+  }
+
+  private static List<String> names(List<ResponsePlanetDTO> planets) {
+    return planets.stream().map(ResponsePlanetDTO::name).toList();
+  }
+}
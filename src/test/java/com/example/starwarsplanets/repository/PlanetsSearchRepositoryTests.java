@@ -0,0 +1,36 @@
+package com.example.starwarsplanets.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+class PlanetsSearchRepositoryTests {
+
+  @Test
+  void escapesLikeWildcardsAndTheEscapeCharacter() {
+    assertThat(PlanetsSearchRepository.escapeLike("tatooine")).isEqualTo("tatooine");
+    assertThat(PlanetsSearchRepository.escapeLike("100%")).isEqualTo("100\\%");
+    assertThat(PlanetsSearchRepository.escapeLike("ta_")).isEqualTo("ta\\_");
+    assertThat(PlanetsSearchRepository.escapeLike("a\\b")).isEqualTo("a\\\\b");
+    assertThat(PlanetsSearchRepository.escapeLike("\\%_")).isEqualTo("\\\\\\%\\_");
+  }
+
+  @Test
+  void normalizesToStrippedLowerCase() {
+    assertThat(PlanetsSearchRepository.normalize("  TaTooine \t")).isEqualTo("tatooine");
+    assertThat(PlanetsSearchRepository.normalize("\u2003\u3000")).isEmpty();
+  }
+
+  @Test
+  void findsNothingForABlankSearchWithoutQuerying() {
+    JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    PlanetsSearchRepository repository = new PlanetsSearchRepository(jdbcTemplate);
+
+    assertThat(repository.findByNamePrefix(" \u3000", 10)).isEmpty();
+    assertThat(repository.findByNameSimilarTo("\t", 10)).isEmpty();
+    verifyNoInteractions(jdbcTemplate);
+  }
+}
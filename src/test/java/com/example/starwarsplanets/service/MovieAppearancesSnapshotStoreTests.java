@@ -0,0 +1,104 @@
+package com.example.starwarsplanets.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import com.example.starwarsplanets.config.MovieAppearancesIndexProperties;
+
+class MovieAppearancesSnapshotStoreTests {
+
+  @TempDir
+  private Path directory;
+
+  private Path snapshotPath;
+  private MovieAppearancesSnapshotStore store;
+
+  @BeforeEach
+  void setUp() {
+    snapshotPath = directory.resolve("index/movie-appearances.snapshot");
+    store = new MovieAppearancesSnapshotStore(new MovieAppearancesIndexProperties(snapshotPath,
+        Duration.ofSeconds(5),
+        new MovieAppearancesIndexProperties.Lookup(Duration.ofMinutes(10), Duration.ofSeconds(2),
+            100),
+        new MovieAppearancesIndexProperties.Refresh(true, Duration.ofHours(1), true)));
+  }
+
+  @Test
+  void loadsWhatWasSaved() throws IOException {
+    Map<String, String> appearances = Map.of("Tatooine", "5", "Hoth", "0", "Ord Mantell", "1",
+        "Dantooine ünïcödé", "2");
+    Instant before = Instant.now().minusMillis(1);
+
+    store.save(appearances);
+
+    MovieAppearancesSnapshotStore.Snapshot snapshot = store.load().orElseThrow();
+    assertThat(snapshot.appearances()).isEqualTo(appearances);
+    assertThat(snapshot.savedAt()).isBetween(before, Instant.now());
+    try (Stream<Path> files = Files.list(snapshotPath.getParent())) {
+      assertThat(files).containsExactly(snapshotPath);
+    }
+  }
+
+  @Test
+  void writesTheDocumentedLayout() throws IOException {
+    store.save(Map.of("Hoth", "3"));
+
+    ByteBuffer bytes = ByteBuffer.wrap(Files.readAllBytes(snapshotPath));
+    assertThat(bytes.getInt()).isEqualTo(0x53575041);
+    assertThat(bytes.get()).isEqualTo((byte) 1);
+    bytes.getLong();
+    assertThat(bytes.getInt()).isEqualTo(1);
+    assertThat(bytes.getShort()).isEqualTo((short) 4);
+    bytes.position(bytes.position() + 4);
+    assertThat(bytes.getInt()).isEqualTo(3);
+    assertThat(bytes.hasRemaining()).isFalse();
+  }
+
+  @Test
+  void ignoresAMissingSnapshot() {
+    assertThat(store.load()).isEmpty();
+  }
+
+  @Test
+  void ignoresATruncatedSnapshot() throws IOException {
+    store.save(Map.of("Tatooine", "5", "Hoth", "0"));
+    byte[] bytes = Files.readAllBytes(snapshotPath);
+
+    for (int length : new int[] {0, 3, 10, bytes.length - 1}) {
+      Files.write(snapshotPath, Arrays.copyOf(bytes, length));
+      assertThat(store.load()).as("first %d bytes", length).isEmpty();
+    }
+  }
+
+  @Test
+  void ignoresACorruptSnapshot() throws IOException {
+    store.save(Map.of("Tatooine", "5"));
+    byte[] bytes = Files.readAllBytes(snapshotPath);
+
+    byte[] wrongMagic = bytes.clone();
+    wrongMagic[0] = 'X';
+    Files.write(snapshotPath, wrongMagic);
+    assertThat(store.load()).isEmpty();
+
+    byte[] hugeCount = bytes.clone();
+    ByteBuffer.wrap(hugeCount).putInt(13, Integer.MAX_VALUE);
+    Files.write(snapshotPath, hugeCount);
+    assertThat(store.load()).isEmpty();
+
+    byte[] negativeCount = bytes.clone();
+    ByteBuffer.wrap(negativeCount).putInt(13, -1);
+    Files.write(snapshotPath, negativeCount);
+    assertThat(store.load()).isEmpty();
+  }
+}
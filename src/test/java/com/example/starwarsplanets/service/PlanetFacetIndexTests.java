@@ -0,0 +1,216 @@
+package com.example.starwarsplanets.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Consumer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+import com.example.starwarsplanets.cache.CacheInvalidationBus;
+import com.example.starwarsplanets.entity.Planet;
+import com.example.starwarsplanets.repository.PlanetsJdbcRepository;
+
+class PlanetFacetIndexTests {
+
+  private final Planet tatooine = planet("Tatooine", "desert", "arid");
+  private final Planet alderaan = planet("Alderaan", "grasslands, mountains", "temperate");
+  private final Planet hoth = planet("Hoth", "tundra, ice caves, mountain ranges", "frozen");
+  private final Planet bespin = planet("Bespin", "gas giant", "temperate");
+  private final Planet endor = planet("Endor", "forests, mountains, lakes", "temperate");
+
+  private final PlanetsJdbcRepository repository = mock(PlanetsJdbcRepository.class);
+  private final List<Planet> table =
+      new ArrayList<>(List.of(tatooine, alderaan, hoth, bespin, endor));
+  private PlanetFacetIndex index;
+
+  @BeforeEach
+  @SuppressWarnings("unchecked")
+  void setUp() {
+    doAnswer(invocation -> {
+      Consumer<Planet> consumer = invocation.getArgument(0);
+      List.copyOf(table).forEach(consumer);
+      return null;
+    }).when(repository).forEachPlanetFacets(any());
+    doAnswer(invocation -> {
+      Collection<UUID> ids = invocation.getArgument(0);
+      Collection<String> names = invocation.getArgument(1);
+      Consumer<Planet> consumer = invocation.getArgument(2);
+      table.stream()
+          .filter(planet -> ids.contains(planet.getId()) || names.contains(planet.getName()))
+          .forEach(consumer);
+      return null;
+    }).when(repository).forEachPlanetFacets(anyCollection(), anyCollection(), any());
+    index = newIndex();
+    index.rebuild();
+  }
+
+  private PlanetFacetIndex newIndex() {
+    return new PlanetFacetIndex(repository, mock(CacheInvalidationBus.class), Runnable::run);
+  }
+
+  @Test
+  void combinesTermsWithOrOrAndAndFacetsWithAnd() {
+    assertThat(index.query(Set.of("desert", "mountains"), Set.of(), false).ids())
+        .containsExactlyInAnyOrder(alderaan.getId(), endor.getId(), tatooine.getId());
+    assertThat(index.query(Set.of("forests", "mountains"), Set.of(), true).ids())
+        .containsExactly(endor.getId());
+    assertThat(index.query(Set.of("mountains"), Set.of("temperate"), false).ids())
+        .containsExactlyInAnyOrder(alderaan.getId(), endor.getId());
+    assertThat(index.query(Set.of("swamp"), Set.of(), false).total()).isZero();
+  }
+
+  @Test
+  void countsFacetsOverTheMatchingPlanets() {
+    PlanetFacetIndex.Result result = index.query(Set.of(), Set.of("temperate"), false);
+
+    assertThat(result.total()).isEqualTo(3);
+    assertThat(result.ids())
+        .containsExactlyInAnyOrder(alderaan.getId(), bespin.getId(), endor.getId());
+    assertThat(result.facets().get(PlanetFacetIndex.CLIMATE))
+        .containsExactly(Map.entry("temperate", 3L));
+    assertThat(result.facets().get(PlanetFacetIndex.TERRAIN))
+        .containsEntry("mountains", 2L).containsEntry("gas giant", 1L)
+        .doesNotContainKey("desert");
+  }
+
+  @Test
+  void recomputesFacetsOverAllPlanetsOnlyWhenTheContentChanges() {
+    Map<String, Map<String, Long>> built = index.facets();
+    assertThat(index.facets()).isSameAs(built);
+
+    Planet dagobah = planet("Dagobah", "swamp", "murky");
+    index.putAfterCommit(List.of(dagobah));
+    assertThat(index.facets()).isNotSameAs(built);
+    assertThat(index.facets().get(PlanetFacetIndex.CLIMATE)).containsEntry("murky", 1L);
+
+    index.removeAfterCommit(dagobah.getId());
+    assertThat(index.facets()).isEqualTo(built);
+  }
+
+  @Test
+  void reportsWhenTheStartupBuildCompleted() {
+    PlanetFacetIndex started = newIndex();
+    assertThat(started.getBuiltAt()).isEmpty();
+
+    started.afterSingletonsInstantiated();
+
+    assertThat(started.getBuiltAt()).isPresent();
+    assertThat(started.query(Set.of("desert"), Set.of(), false).ids())
+        .containsExactly(tatooine.getId());
+  }
+
+  @Test
+  void staysUnbuiltWhenTheStartupScanFails() {
+    doThrow(new QueryTimeoutException("scan timed out")).when(repository)
+        .forEachPlanetFacets(any());
+    PlanetFacetIndex started = newIndex();
+
+    started.afterSingletonsInstantiated();
+
+    assertThat(started.getBuiltAt()).isEmpty();
+  }
+
+  @Test
+  void appliesWritesIncrementally() {
+    Planet dagobah = planet("Dagobah", "swamp, jungles", "murky");
+    index.putAfterCommit(List.of(dagobah));
+    index.removeAfterCommit(tatooine.getId());
+
+    assertThat(index.query(Set.of("swamp"), Set.of(), false).ids())
+        .containsExactly(dagobah.getId());
+    assertThat(index.query(Set.of("desert"), Set.of(), false).total()).isZero();
+    assertThat(index.facets().get(PlanetFacetIndex.CLIMATE)).doesNotContainKey("arid")
+        .containsEntry("murky", 1L);
+  }
+
+  @Test
+  void keepsWritesMadeWhileARebuildScansTheTable() {
+    Planet dagobah = planet("Dagobah", "swamp, jungles", "murky");
+    doAnswer(invocation -> {
+      Consumer<Planet> consumer = invocation.getArgument(0);
+      List.copyOf(table).forEach(consumer);
+      // Committed after the scan read the table, applied before the rebuilt index is swapped in.
+      index.putAfterCommit(List.of(dagobah));
+      index.removeAfterCommit(tatooine.getId());
+      return null;
+    }).when(repository).forEachPlanetFacets(any());
+
+    index.rebuild();
+
+    assertThat(index.query(Set.of("swamp"), Set.of(), false).ids())
+        .containsExactly(dagobah.getId());
+    assertThat(index.query(Set.of("desert"), Set.of(), false).total()).isZero();
+  }
+
+  @Test
+  void reloadsPlanetsThatOtherNodesWrote() {
+    Planet dagobah = planet("Dagobah", "swamp, jungles", "murky");
+    Planet hothMelted = planet("Hoth", "lakes", "temperate");
+    hothMelted.setId(hoth.getId());
+    table.add(dagobah);
+    table.set(table.indexOf(hoth), hothMelted);
+    table.remove(tatooine);
+
+    index.evicted("Dagobah");
+    index.evicted(hoth.getId().toString());
+    index.evicted(tatooine.getId().toString());
+
+    assertThat(index.query(Set.of("swamp"), Set.of(), false).ids())
+        .containsExactly(dagobah.getId());
+    assertThat(index.query(Set.of("lakes"), Set.of(), false).ids())
+        .containsExactlyInAnyOrder(endor.getId(), hoth.getId());
+    assertThat(index.query(Set.of("tundra"), Set.of(), false).total()).isZero();
+    assertThat(index.query(Set.of("desert"), Set.of(), false).total()).isZero();
+  }
+
+  @Test
+  void replacesAPlanetRecreatedUnderTheSameName() {
+    Planet newTatooine = planet("Tatooine", "desert, canyons", "arid");
+    table.set(table.indexOf(tatooine), newTatooine);
+
+    index.evicted("Tatooine");
+
+    assertThat(index.query(Set.of("desert"), Set.of(), false).ids())
+        .containsExactly(newTatooine.getId());
+  }
+
+  @Test
+  void fingerprintFollowsTheContentNotTheOrderOfWrites() {
+    long built = index.fingerprint();
+    Planet dagobah = planet("Dagobah", "swamp", "murky");
+
+    index.putAfterCommit(List.of(dagobah));
+    assertThat(index.fingerprint()).isNotEqualTo(built);
+
+    table.add(dagobah);
+    PlanetFacetIndex other = newIndex();
+    other.rebuild();
+    assertThat(other.fingerprint()).isEqualTo(index.fingerprint());
+
+    index.removeAfterCommit(dagobah.getId());
+    assertThat(index.fingerprint()).isEqualTo(built);
+  }
+
+  @Test
+  void normalizesCommaSeparatedTerms() {
+    assertThat(PlanetFacetIndex.normalize(List.of("MOUNTAINS, Desert", " desert ", "")))
+        .containsExactly("desert", "mountains");
+  }
+
+  private static Planet planet(String name, String terrain, String climate) {
+    Planet planet = new Planet(name, terrain, climate);
+    planet.setId(UUID.randomUUID());
+    return planet;
+  }
+}
@@ -0,0 +1,58 @@
+package com.example.starwarsplanets.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.web.client.ResourceAccessException;
+import com.example.starwarsplanets.config.MovieAppearancesIndexProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class PlanetsCacheServiceTests {
+
+  private final SwapiService swapiService = mock(SwapiService.class);
+  private PlanetsCacheService planetsCacheService;
+
+  @BeforeEach
+  @SuppressWarnings("unchecked")
+  void setUp() {
+    MovieAppearancesIndexProperties properties = new MovieAppearancesIndexProperties(
+        Path.of("unused"), Duration.ofHours(1),
+        new MovieAppearancesIndexProperties.Lookup(Duration.ofMinutes(10),
+            Duration.ofMillis(200), 100),
+        new MovieAppearancesIndexProperties.Refresh(false, Duration.ofHours(1), true));
+    planetsCacheService = new PlanetsCacheService(mock(RedisTemplate.class), swapiService,
+        properties, new SimpleMeterRegistry());
+    planetsCacheService.seed(Map.of("Tatooine", "5"));
+  }
+
+  @Test
+  void resolvesFromTheIndexThenFromSwapi() {
+    when(swapiService.findPlanetMovieAppearances("Kamino")).thenReturn(Optional.of(1));
+    when(swapiService.findPlanetMovieAppearances("Nowhere")).thenReturn(Optional.empty());
+
+    assertThat(planetsCacheService.retrieveData("Tatooine")).isEqualTo("5");
+    assertThat(planetsCacheService.retrieveData("Kamino")).isEqualTo("1");
+    assertThat(planetsCacheService.retrieveData("Nowhere")).isEqualTo("0");
+  }
+
+  @Test
+  void reportsAFailedOrSlowLookupAsUnknown() {
+    when(swapiService.findPlanetMovieAppearances("Kamino"))
+        .thenThrow(new ResourceAccessException("connection refused"));
+    when(swapiService.findPlanetMovieAppearances("Bespin")).thenAnswer(invocation -> {
+      Thread.sleep(2_000);
+      return Optional.of(1);
+    });
+
+    assertThat(planetsCacheService.retrieveData("Kamino")).isNull();
+    assertThat(planetsCacheService.retrieveData("Bespin")).isNull();
+  }
+}
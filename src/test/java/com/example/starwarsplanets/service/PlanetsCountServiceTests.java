@@ -0,0 +1,66 @@
+package com.example.starwarsplanets.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import com.example.starwarsplanets.repository.PlanetsRepository;
+
+class PlanetsCountServiceTests {
+
+  @SuppressWarnings("unchecked")
+  private final RedisTemplate<String, Object> redisTemplate = mock(RedisTemplate.class);
+  @SuppressWarnings("unchecked")
+  private final ValueOperations<String, Object> values = mock(ValueOperations.class);
+  private final PlanetsRepository planetsRepository = mock(PlanetsRepository.class);
+  private PlanetsCountService countService;
+
+  @BeforeEach
+  void setUp() {
+    when(redisTemplate.opsForValue()).thenReturn(values);
+    countService = new PlanetsCountService(redisTemplate, planetsRepository);
+  }
+
+  @Test
+  void servesTheMaintainedCountWithoutCounting() {
+    when(values.get(PlanetsCountService.COUNT_KEY)).thenReturn("42");
+
+    assertThat(countService.current()).hasValue(42);
+    verify(planetsRepository, never()).count();
+  }
+
+  @Test
+  void initializesAMissingCounterFromTheTable() {
+    when(planetsRepository.count()).thenReturn(7L);
+
+    assertThat(countService.current()).hasValue(7);
+    verify(values).set(PlanetsCountService.COUNT_KEY, "7");
+  }
+
+  @Test
+  void adjustsOnlyAnInitializedCounter() {
+    countService.adjustAfterCommit(1);
+    verify(values, never()).increment(anyString(), anyLong());
+
+    when(redisTemplate.hasKey(PlanetsCountService.COUNT_KEY)).thenReturn(true);
+    countService.adjustAfterCommit(-1);
+    verify(values).increment(PlanetsCountService.COUNT_KEY, -1);
+  }
+
+  @Test
+  void isEmptyWhenRedisIsDown() {
+    when(values.get(PlanetsCountService.COUNT_KEY))
+        .thenThrow(new RedisConnectionFailureException("down"));
+
+    assertThat(countService.current()).isEmpty();
+  }
+}
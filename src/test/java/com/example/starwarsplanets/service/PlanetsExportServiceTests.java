@@ -0,0 +1,102 @@
+package com.example.starwarsplanets.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.OutputStream;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.postgresql.PostgreSQLContainer;
+import com.example.starwarsplanets.TestPostgres;
+import com.example.starwarsplanets.mapper.PlanetMapperImpl;
+import com.example.starwarsplanets.repository.PlanetsRepository;
+import jakarta.persistence.EntityManager;
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * Exports a generated table of a million rows from Postgres through the real repository cursor.
+ * Run by the {@code streamingTest} task on a small heap, where reading the result set without a
+ * fetch size or retaining the rows (or their JSON) fails with an OutOfMemoryError.
+ */
+@Tag("streaming")
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Testcontainers(disabledWithoutDocker = true)
+class PlanetsExportServiceTests {
+
+  private static final int ROWS = 1_000_000;
+
+  @ServiceConnection
+  static PostgreSQLContainer postgres = TestPostgres.container();
+
+  @Autowired
+  private PlanetsRepository planetsRepository;
+
+  @Autowired
+  private EntityManager entityManager;
+
+  @Autowired
+  private PlatformTransactionManager transactionManager;
+
+  @Autowired
+  private DataSource dataSource;
+
+  @BeforeEach
+  void generateTable() {
+    new JdbcTemplate(dataSource).update("""
+        INSERT INTO planets (id, name, terrain, climate, movie_appearances, created_at, updated_at)
+        SELECT gen_random_uuid(), 'Planet-' || g, 'desert, mountains', 'arid', g % 7, now(), now()
+        FROM generate_series(1, ?) AS g""", ROWS);
+  }
+
+  @AfterEach
+  void dropRows() {
+    new JdbcTemplate(dataSource).update("TRUNCATE planets");
+  }
+
+  @Test
+  void exportsEveryRowAsOneLineWithoutRetainingThem() {
+    PlanetsExportService exportService = new PlanetsExportService(planetsRepository,
+        new PlanetMapperImpl(), entityManager, JsonMapper.builder().build(), transactionManager);
+
+    CountingOutputStream out = new CountingOutputStream();
+    long exported = exportService.exportAll(out);
+
+    assertThat(exported).isEqualTo(ROWS);
+    assertThat(out.lines).isEqualTo(ROWS);
+    assertThat(out.bytes).isGreaterThan(ROWS * 100L);
+  }
+
+  private static final class CountingOutputStream extends OutputStream {
+
+    private long bytes;
+    private long lines;
+
+    @Override
+    public void write(int b) {
+      bytes++;
+      if (b == '\n') {
+        lines++;
+      }
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+      for (int i = off; i < off + len; i++) {
+        write(b[i]);
+      }
+    }
+  }
+}
@@ -0,0 +1,184 @@
+package com.example.starwarsplanets.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import com.example.starwarsplanets.config.GroupCommitProperties;
+import com.example.starwarsplanets.dto.RequestPlanetDTO;
+import com.example.starwarsplanets.dto.ResponsePlanetDTO;
+import com.example.starwarsplanets.entity.Planet;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class PlanetsGroupCommitterTests {
+
+  private final PlanetsService planetsService = mock(PlanetsService.class);
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private final ExecutorService callers = Executors.newFixedThreadPool(8);
+  private PlanetsGroupCommitter committer;
+
+  @BeforeEach
+  void setUp() {
+    when(planetsService.prepare(any())).thenAnswer(invocation -> {
+      RequestPlanetDTO request = invocation.getArgument(0);
+      return new Planet(request.name(), request.terrain(), request.climate());
+    });
+  }
+
+  @AfterEach
+  void tearDown() throws InterruptedException {
+    callers.shutdownNow();
+    if (committer != null) {
+      committer.destroy();
+    }
+  }
+
+  @Test
+  void commitsConcurrentCreatesTogetherAndAnswersEachCaller() throws Exception {
+    List<List<Planet>> groups = new ArrayList<>();
+    when(planetsService.saveGroup(anyList())).thenAnswer(invocation -> {
+      List<Planet> group = invocation.getArgument(0);
+      synchronized (groups) {
+        groups.add(group);
+      }
+      return group.stream()
+          .map(planet -> planet.getName().equals("Hoth") ? Optional.<ResponsePlanetDTO>empty()
+              : Optional.of(created(request(planet.getName()))))
+          .toList();
+    });
+    committer = start(Duration.ofMillis(200), 8);
+
+    List<Future<Optional<ResponsePlanetDTO>>> results = new ArrayList<>();
+    for (String name : List.of("Tatooine", "Alderaan", "Hoth", "Bespin")) {
+      results.add(callers.submit(() -> committer.save(request(name))));
+    }
+
+    assertThat(results.get(0).get().map(ResponsePlanetDTO::name)).hasValue("Tatooine");
+    assertThat(results.get(1).get().map(ResponsePlanetDTO::name)).hasValue("Alderaan");
+    assertThat(results.get(2).get()).isEmpty();
+    assertThat(results.get(3).get().map(ResponsePlanetDTO::name)).hasValue("Bespin");
+    assertThat(groups).hasSizeLessThan(4);
+    assertThat(meterRegistry.get("planets.group-commit.batch.size").summary().totalAmount())
+        .isEqualTo(4);
+    verify(planetsService, never()).save(any());
+    verify(planetsService, never()).insert(any());
+  }
+
+  @Test
+  void resolvesEachCreateBeforeQueueingIt() throws Exception {
+    when(planetsService.saveGroup(anyList())).thenAnswer(invocation -> {
+      List<Planet> group = invocation.getArgument(0);
+      return group.stream().map(planet -> Optional.of(created(request(planet.getName()))))
+          .toList();
+    });
+    committer = start(Duration.ofMillis(50), 8);
+
+    assertThat(committer.save(request("Tatooine"))).isPresent();
+    verify(planetsService).prepare(request("Tatooine"));
+    verify(planetsService).saveGroup(
+        argThat(group -> group.size() == 1 && group.get(0).getName().equals("Tatooine")));
+  }
+
+  @Test
+  void retriesAFailedGroupRequestByRequest() throws Exception {
+    when(planetsService.saveGroup(anyList()))
+        .thenThrow(new DataIntegrityViolationException("value too long"));
+    when(planetsService.insert(named("Tatooine")))
+        .thenReturn(Optional.of(created(request("Tatooine"))));
+    when(planetsService.insert(named("Kamino")))
+        .thenThrow(new DataIntegrityViolationException("value too long"));
+    committer = start(Duration.ofMillis(200), 8);
+
+    Future<Optional<ResponsePlanetDTO>> valid =
+        callers.submit(() -> committer.save(request("Tatooine")));
+    Future<Optional<ResponsePlanetDTO>> invalid =
+        callers.submit(() -> committer.save(request("Kamino")));
+
+    assertThat(valid.get()).isPresent();
+    assertThatThrownBy(invalid::get).hasCauseInstanceOf(DataIntegrityViolationException.class);
+  }
+
+  @Test
+  void commitsAloneWhenNoFlusherPicksTheCreateUpInTime() throws Exception {
+    CountDownLatch flushing = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    when(planetsService.saveGroup(anyList())).thenAnswer(invocation -> {
+      flushing.countDown();
+      release.await();
+      List<Planet> group = invocation.getArgument(0);
+      return group.stream().map(planet -> Optional.of(created(request(planet.getName()))))
+          .toList();
+    });
+    when(planetsService.insert(named("Hoth"))).thenReturn(Optional.of(created(request("Hoth"))));
+    committer = new PlanetsGroupCommitter(planetsService,
+        new GroupCommitProperties(true, Duration.ofMillis(2), 64, 1, Duration.ofMillis(50)),
+        meterRegistry);
+    committer.afterSingletonsInstantiated();
+
+    Future<Optional<ResponsePlanetDTO>> held =
+        callers.submit(() -> committer.save(request("Tatooine")));
+    assertThat(flushing.await(5, TimeUnit.SECONDS)).isTrue();
+    Future<Optional<ResponsePlanetDTO>> stuck =
+        callers.submit(() -> committer.save(request("Hoth")));
+
+    assertThat(stuck.get(5, TimeUnit.SECONDS).map(ResponsePlanetDTO::name)).hasValue("Hoth");
+    assertThat(meterRegistry.get("planets.group-commit.timed-out").counter().count())
+        .isEqualTo(1);
+    release.countDown();
+    assertThat(held.get(5, TimeUnit.SECONDS).map(ResponsePlanetDTO::name)).hasValue("Tatooine");
+    verify(planetsService, never()).insert(named("Tatooine"));
+  }
+
+  @Test
+  void savesDirectlyWhenDisabled() {
+    when(planetsService.save(any())).thenReturn(Optional.of(created(request("Tatooine"))));
+    committer = new PlanetsGroupCommitter(planetsService,
+        new GroupCommitProperties(false, Duration.ofMillis(2), 64, 2, Duration.ofMillis(50)),
+        meterRegistry);
+    committer.afterSingletonsInstantiated();
+
+    assertThat(committer.save(request("Tatooine"))).isPresent();
+    verify(planetsService, never()).prepare(any());
+    verify(planetsService, never()).saveGroup(anyList());
+  }
+
+  private PlanetsGroupCommitter start(Duration window, int maxBatchSize) {
+    PlanetsGroupCommitter started = new PlanetsGroupCommitter(planetsService,
+        new GroupCommitProperties(true, window, maxBatchSize, 1, Duration.ofSeconds(5)),
+        meterRegistry);
+    started.afterSingletonsInstantiated();
+    return started;
+  }
+
+  private static RequestPlanetDTO request(String name) {
+    return new RequestPlanetDTO(name, "desert", "arid");
+  }
+
+  private static Planet named(String name) {
+    return argThat(planet -> planet != null && planet.getName().equals(name));
+  }
+
+  private static ResponsePlanetDTO created(RequestPlanetDTO request) {
+    return new ResponsePlanetDTO("id-" + request.name(), request.name(), request.terrain(),
+        request.climate(), 0, null, null);
+  }
+}
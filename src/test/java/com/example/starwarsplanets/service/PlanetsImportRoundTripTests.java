@@ -0,0 +1,117 @@
+package com.example.starwarsplanets.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import com.example.starwarsplanets.TestPostgres;
+import com.example.starwarsplanets.cache.PlanetsCacheEvictor;
+import com.example.starwarsplanets.dto.ImportResultDTO;
+import com.example.starwarsplanets.mapper.PlanetMapperImpl;
+import com.example.starwarsplanets.repository.PlanetsJdbcRepository;
+import jakarta.validation.Validation;
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * Streams CSV and NDJSON through the COPY staging table and the merge into a real Postgres.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class PlanetsImportRoundTripTests {
+
+  private final PlanetsCacheService planetsCacheService = mock(PlanetsCacheService.class);
+  private final PlanetsCountService planetsCountService = mock(PlanetsCountService.class);
+
+  private JdbcTemplate jdbcTemplate;
+  private TransactionTemplate transactionTemplate;
+  private PlanetsImportService importService;
+
+  @BeforeEach
+  void setUp() {
+    DataSource dataSource = TestPostgres.dataSource();
+    jdbcTemplate = new JdbcTemplate(dataSource);
+    transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+    Map<String, String> indexed = Map.of("Tatooine", "5", "Naboo", "4");
+    when(planetsCacheService.retrieveAll(anyList())).thenAnswer(invocation -> {
+      List<String> names = invocation.getArgument(0);
+      return names.stream().distinct()
+          .collect(Collectors.toMap(name -> name, name -> indexed.getOrDefault(name, "0")));
+    });
+
+    importService = new PlanetsImportService(new PlanetsJdbcRepository(jdbcTemplate, 20),
+        planetsCacheService, mock(PlanetsCacheEvictor.class), planetsCountService,
+        mock(PlanetFacetIndex.class), new PlanetMapperImpl(),
+        Validation.buildDefaultValidatorFactory().getValidator(), JsonMapper.builder().build());
+  }
+
+  @AfterEach
+  void dropRows() {
+    jdbcTemplate.update("TRUNCATE planets");
+  }
+
+  @Test
+  void importsCsvAndThenUpsertsNdjsonByName() {
+    ImportResultDTO csv = importPlanets("""
+        name,terrain,climate
+        Tatooine,desert,arid
+        Naboo,"grassy hills, swamps",temperate
+        Hoth,,frozen
+        Hoth,"tundra, ice caves",frozen
+        "Broken,desert,arid
+        """, PlanetsImportService.TEXT_CSV);
+
+    assertThat(csv.rowsRead()).isEqualTo(5);
+    assertThat(csv.rejected()).isEqualTo(2);
+    assertThat(csv.inserted()).isEqualTo(3);
+    assertThat(csv.updated()).isZero();
+    assertThat(row("Naboo"))
+        .containsEntry("terrain", "grassy hills, swamps")
+        .containsEntry("movie_appearances", 4);
+    assertThat(row("Hoth")).containsEntry("movie_appearances", 0);
+
+    ImportResultDTO ndjson = importPlanets("""
+        {"name":"Tatooine","terrain":"desert, canyons","climate":"arid"}
+        {"name":"Kamino","terrain":"ocean","climate":"temperate"}
+        {"name":"Kamino","terrain":"ocean","climate":"stormy"}
+        not json
+        """, MediaType.APPLICATION_NDJSON);
+
+    assertThat(ndjson.rowsRead()).isEqualTo(4);
+    assertThat(ndjson.rejected()).isEqualTo(1);
+    assertThat(ndjson.inserted()).isEqualTo(1);
+    assertThat(ndjson.updated()).isEqualTo(1);
+    assertThat(row("Tatooine"))
+        .containsEntry("terrain", "desert, canyons")
+        .containsEntry("movie_appearances", 5);
+    assertThat(row("Kamino")).containsEntry("climate", "stormy");
+    assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM planets", Long.class))
+        .isEqualTo(4);
+    verify(planetsCountService).adjustAfterCommit(3);
+    verify(planetsCountService).adjustAfterCommit(1);
+  }
+
+  private ImportResultDTO importPlanets(String body, MediaType contentType) {
+    return transactionTemplate.execute(status -> importService.importPlanets(
+        new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), contentType));
+  }
+
+  private Map<String, Object> row(String name) {
+    return jdbcTemplate.queryForMap(
+        "SELECT terrain, climate, movie_appearances FROM planets WHERE name = ?", name);
+  }
+}
@@ -0,0 +1,47 @@
+package com.example.starwarsplanets.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+import com.example.starwarsplanets.dto.RequestPlanetDTO;
+
+class PlanetsImportServiceTests {
+
+  @Test
+  void parsesPlainFields() {
+    assertThat(PlanetsImportService.parseCsv("Tatooine,desert,arid"))
+        .isEqualTo(new RequestPlanetDTO("Tatooine", "desert", "arid"));
+  }
+
+  @Test
+  void trimsFieldsOutsideQuotes() {
+    assertThat(PlanetsImportService.parseCsv("  Hoth , tundra,frozen  "))
+        .isEqualTo(new RequestPlanetDTO("Hoth", "tundra", "frozen"));
+  }
+
+  @Test
+  void keepsCommasInsideQuotedFields() {
+    assertThat(PlanetsImportService.parseCsv("Naboo,\"grassy hills, swamps, forests\",temperate"))
+        .isEqualTo(new RequestPlanetDTO("Naboo", "grassy hills, swamps, forests", "temperate"));
+  }
+
+  @Test
+  void unescapesDoubledQuotes() {
+    assertThat(PlanetsImportService.parseCsv("\"The \"\"Rock\"\"\",rocky,\"dry, \"\"hot\"\"\""))
+        .isEqualTo(new RequestPlanetDTO("The \"Rock\"", "rocky", "dry, \"hot\""));
+  }
+
+  @Test
+  void keepsEmptyFieldsForValidationToReject() {
+    assertThat(PlanetsImportService.parseCsv("Kamino,,temperate"))
+        .isEqualTo(new RequestPlanetDTO("Kamino", "", "temperate"));
+  }
+
+  @Test
+  void rejectsMalformedRecords() {
+    assertThat(PlanetsImportService.parseCsv("Tatooine,\"desert,arid")).isNull();
+    assertThat(PlanetsImportService.parseCsv("Tatooine,desert")).isNull();
+    assertThat(PlanetsImportService.parseCsv("Tatooine,desert,arid,extra")).isNull();
+    assertThat(PlanetsImportService.parseCsv("")).isNull();
+  }
+}
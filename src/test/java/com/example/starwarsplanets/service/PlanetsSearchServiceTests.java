@@ -0,0 +1,19 @@
+package com.example.starwarsplanets.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class PlanetsSearchServiceTests {
+
+  @Test
+  void clampsTheLimitToOneThroughTheMaximum() {
+    assertThat(PlanetsSearchService.clampLimit(10)).isEqualTo(10);
+    assertThat(PlanetsSearchService.clampLimit(0)).isEqualTo(1);
+    assertThat(PlanetsSearchService.clampLimit(-5)).isEqualTo(1);
+    assertThat(PlanetsSearchService.clampLimit(PlanetsSearchService.MAX_LIMIT))
+        .isEqualTo(PlanetsSearchService.MAX_LIMIT);
+    assertThat(PlanetsSearchService.clampLimit(Integer.MAX_VALUE))
+        .isEqualTo(PlanetsSearchService.MAX_LIMIT);
+  }
+}
@@ -0,0 +1,103 @@
+package com.example.starwarsplanets.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anySet;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import com.example.starwarsplanets.cache.PlanetsCacheEvictor;
+import com.example.starwarsplanets.config.MovieAppearancesIndexProperties;
+import com.example.starwarsplanets.repository.PlanetsJdbcRepository;
+import com.example.starwarsplanets.repository.PlanetsJdbcRepository.UpdatedPlanet;
+import com.example.starwarsplanets.service.SwapiIndexRefresher.RefreshResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class SwapiIndexRefresherTests {
+
+  private final SwapiService swapiService = mock(SwapiService.class);
+  private final PlanetsCacheService planetsCacheService = mock(PlanetsCacheService.class);
+  private final MovieAppearancesSnapshotStore snapshotStore =
+      mock(MovieAppearancesSnapshotStore.class);
+  private final PlanetsJdbcRepository planetsJdbcRepository = mock(PlanetsJdbcRepository.class);
+  private final PlanetsCacheEvictor cacheEvictor = mock(PlanetsCacheEvictor.class);
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private SwapiIndexRefresher refresher;
+
+  @BeforeEach
+  void setUp() {
+    MovieAppearancesIndexProperties properties = new MovieAppearancesIndexProperties(
+        Path.of("unused"), Duration.ofSeconds(5),
+        new MovieAppearancesIndexProperties.Lookup(Duration.ofMinutes(10), Duration.ofSeconds(2),
+            100),
+        new MovieAppearancesIndexProperties.Refresh(true, Duration.ofHours(1), true));
+    refresher = new SwapiIndexRefresher(swapiService, planetsCacheService, snapshotStore,
+        planetsJdbcRepository, cacheEvictor, properties, meterRegistry);
+  }
+
+  @Test
+  void pushesOnlyChangedNamesAndBackfillsThem() {
+    UUID hothId = UUID.randomUUID();
+    when(planetsCacheService.currentIndex())
+        .thenReturn(Map.of("Tatooine", "5", "Hoth", "1", "Alderaan", "2"));
+    when(swapiService.indexPlanetsMovieAppearances())
+        .thenReturn(Map.of("Tatooine", "5", "Hoth", "2", "Naboo", "4"));
+    when(planetsCacheService.applyChanges(anyMap(), anySet())).thenReturn(true);
+    when(planetsJdbcRepository.updateMovieAppearances(anyMap()))
+        .thenReturn(List.of(new UpdatedPlanet(hothId, "Hoth")));
+
+    RefreshResult result = refresher.refresh().orElseThrow();
+
+    verify(planetsCacheService).applyChanges(Map.of("Hoth", "2", "Naboo", "4"),
+        Set.of("Alderaan"));
+    verify(planetsCacheService, never()).saveAll(anyMap());
+    verify(planetsJdbcRepository).updateMovieAppearances(Map.of("Hoth", 2, "Naboo", 4));
+    verify(cacheEvictor).evictAfterCommit(List.of(hothId, "Hoth"));
+    assertThat(result).isEqualTo(new RefreshResult(3, 2, 1, false, 1));
+    assertThat(meterRegistry.counter("planets.index.refresh.changed.keys").count()).isEqualTo(3);
+  }
+
+  @Test
+  void fillsUnknownCountsFromTheWholeIndex() {
+    UUID nabooId = UUID.randomUUID();
+    Map<String, String> fresh = Map.of("Tatooine", "5", "Naboo", "4");
+    when(planetsCacheService.currentIndex()).thenReturn(fresh);
+    when(swapiService.indexPlanetsMovieAppearances()).thenReturn(fresh);
+    when(planetsCacheService.applyChanges(anyMap(), anySet())).thenReturn(true);
+    when(planetsJdbcRepository.fillUnknownMovieAppearances(anyMap()))
+        .thenReturn(List.of(new UpdatedPlanet(nabooId, "Naboo")));
+
+    RefreshResult result = refresher.refresh().orElseThrow();
+
+    verify(planetsJdbcRepository, never()).updateMovieAppearances(any());
+    verify(planetsJdbcRepository).fillUnknownMovieAppearances(Map.of("Tatooine", 5, "Naboo", 4));
+    verify(cacheEvictor).evictAfterCommit(List.of(nabooId, "Naboo"));
+    assertThat(result.backfilled()).isEqualTo(1);
+  }
+
+  @Test
+  void republishesTheFullIndexWhenThereIsNoVersionToPatch() {
+    Map<String, String> fresh = Map.of("Tatooine", "5", "Hoth", "1");
+    when(planetsCacheService.currentIndex()).thenReturn(fresh);
+    when(swapiService.indexPlanetsMovieAppearances()).thenReturn(fresh);
+    when(planetsCacheService.applyChanges(anyMap(), anySet())).thenReturn(false);
+
+    RefreshResult result = refresher.refresh().orElseThrow();
+
+    verify(planetsCacheService).saveAll(fresh);
+    verify(planetsJdbcRepository, never()).updateMovieAppearances(any());
+    assertThat(result.republished()).isTrue();
+    assertThat(result.changed()).isZero();
+  }
+}
@@ -0,0 +1,89 @@
+package com.example.starwarsplanets.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.web.client.RestClient;
+import com.example.starwarsplanets.config.RestClientConfig;
+import com.example.starwarsplanets.config.SwapiProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import tools.jackson.databind.json.JsonMapper;
+
+class SwapiServiceTests {
+
+  private static final int PLANETS = 95;
+  private static final Duration LATENCY = Duration.ofMillis(100);
+
+  @Test
+  void indexesEveryPageOfTheStub() throws Exception {
+    try (SwapiStubServer stub = new SwapiStubServer(PLANETS, Duration.ZERO)) {
+      Map<String, String> index = swapiService(stub, 4).indexPlanetsMovieAppearances();
+
+      assertThat(index).hasSize(PLANETS);
+      assertThat(index).containsEntry("Planet-0", "0").containsEntry("Planet-13", "6")
+          .containsEntry("Planet-94", "3");
+      assertThat(stub.requests()).isEqualTo(10);
+    }
+  }
+
+  @Test
+  void revalidatesUnchangedPagesWithoutDownloadingThem() throws Exception {
+    try (SwapiStubServer stub = new SwapiStubServer(PLANETS, Duration.ZERO)) {
+      SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+      SwapiService swapiService = swapiService(stub, 4, meterRegistry);
+
+      Map<String, String> first = swapiService.indexPlanetsMovieAppearances();
+      int downloaded = stub.bodyBytes();
+      Map<String, String> second = swapiService.indexPlanetsMovieAppearances();
+
+      assertThat(second).isEqualTo(first);
+      assertThat(stub.notModified()).isEqualTo(10);
+      assertThat(stub.bodyBytes()).isEqualTo(downloaded);
+      assertThat(meterRegistry.counter("swapi.fetch.bytes").count()).isEqualTo(downloaded);
+
+      stub.bumpRevision();
+      assertThat(swapiService.indexPlanetsMovieAppearances()).isEqualTo(first);
+      assertThat(stub.bodyBytes()).isEqualTo(2 * downloaded);
+    }
+  }
+
+  @Test
+  void retriesTransientFailures() throws Exception {
+    try (SwapiStubServer stub = new SwapiStubServer(PLANETS, Duration.ZERO)) {
+      stub.failNext(2);
+
+      assertThat(swapiService(stub, 1).indexPlanetsMovieAppearances()).hasSize(PLANETS);
+    }
+  }
+
+  @Test
+  void fetchesRemainingPagesInParallelUpToTheConcurrencyLimit() throws Exception {
+    try (SwapiStubServer serial = new SwapiStubServer(PLANETS, LATENCY)) {
+      assertThat(swapiService(serial, 1).indexPlanetsMovieAppearances()).hasSize(PLANETS);
+
+      assertThat(serial.maxConcurrentRequests()).isEqualTo(1);
+    }
+    try (SwapiStubServer parallel = new SwapiStubServer(PLANETS, LATENCY)) {
+      assertThat(swapiService(parallel, 4).indexPlanetsMovieAppearances()).hasSize(PLANETS);
+
+      assertThat(parallel.maxConcurrentRequests()).isBetween(2, 4);
+    }
+  }
+
+  private static SwapiService swapiService(SwapiStubServer stub, int maxConcurrency) {
+    return swapiService(stub, maxConcurrency, new SimpleMeterRegistry());
+  }
+
+  private static SwapiService swapiService(SwapiStubServer stub, int maxConcurrency,
+      SimpleMeterRegistry meterRegistry) {
+    SwapiProperties properties = new SwapiProperties(stub.baseUrl(), maxConcurrency,
+        Duration.ofSeconds(1), Duration.ofSeconds(2), 3, Duration.ofMillis(10));
+    RestClient restClient =
+        new RestClientConfig().swapiRestClient(RestClient.builder(), properties,
+            new StandardEnvironment());
+    return new SwapiService(restClient, properties, JsonMapper.builder().build(), meterRegistry);
+  }
+}
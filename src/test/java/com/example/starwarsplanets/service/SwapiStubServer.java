@@ -0,0 +1,155 @@
+package com.example.starwarsplanets.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Minimal local stand-in for {@code https://swapi.dev/api/planets/}: serves {@code count}
+ * generated planets in pages of ten, with a fixed artificial latency per request. Planet
+ * {@code n} is named {@code Planet-n} and appears in {@code n % 7} films. Pages carry an ETag
+ * and are answered with 304 when the client revalidates an unchanged page. The stub records the
+ * highest number of requests it was serving at the same time.
+ */
+class SwapiStubServer implements AutoCloseable {
+
+  static final int PAGE_SIZE = 10;
+
+  private final HttpServer server;
+  private final int count;
+  private final Duration latency;
+  private final AtomicInteger requests = new AtomicInteger();
+  private final AtomicInteger failuresToInject = new AtomicInteger();
+  private final AtomicInteger notModified = new AtomicInteger();
+  private final AtomicInteger bodyBytes = new AtomicInteger();
+  private final AtomicInteger inFlight = new AtomicInteger();
+  private final AtomicInteger maxInFlight = new AtomicInteger();
+  private volatile int revision;
+
+  SwapiStubServer(int count, Duration latency) throws IOException {
+    this.count = count;
+    this.latency = latency;
+    this.server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    this.server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+    this.server.createContext("/api/planets", this::handle);
+    this.server.start();
+  }
+
+  String baseUrl() {
+    return "http://localhost:" + server.getAddress().getPort() + "/api";
+  }
+
+  int requests() {
+    return requests.get();
+  }
+
+  int notModified() {
+    return notModified.get();
+  }
+
+  int bodyBytes() {
+    return bodyBytes.get();
+  }
+
+  /** The most requests that were being handled at once. */
+  int maxConcurrentRequests() {
+    return maxInFlight.get();
+  }
+
+  /** Changes every page's ETag, as if SWAPI had been updated. */
+  void bumpRevision() {
+    revision++;
+  }
+
+  /** The next {@code failures} requests answer 503. */
+  void failNext(int failures) {
+    failuresToInject.set(failures);
+  }
+
+  private void handle(HttpExchange exchange) throws IOException {
+    requests.incrementAndGet();
+    maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+    try {
+      respond(exchange);
+    } finally {
+      inFlight.decrementAndGet();
+    }
+  }
+
+  private void respond(HttpExchange exchange) throws IOException {
+    try {
+      Thread.sleep(latency);
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    }
+
+    if (failuresToInject.getAndUpdate(n -> Math.max(0, n - 1)) > 0) {
+      exchange.sendResponseHeaders(503, -1);
+      exchange.close();
+      return;
+    }
+
+    int page = page(exchange.getRequestURI().getQuery());
+    String etag = "\"page-" + page + "-r" + revision + "\"";
+    exchange.getResponseHeaders().add("ETag", etag);
+    if (etag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+      notModified.incrementAndGet();
+      exchange.sendResponseHeaders(304, -1);
+      exchange.close();
+      return;
+    }
+
+    byte[] body = pageJson(page).getBytes(StandardCharsets.UTF_8);
+    bodyBytes.addAndGet(body.length);
+    exchange.getResponseHeaders().add("Content-Type", "application/json");
+    exchange.sendResponseHeaders(200, body.length);
+    try (OutputStream out = exchange.getResponseBody()) {
+      out.write(body);
+    }
+  }
+
+  private static int page(String query) {
+    if (query != null) {
+      for (String param : query.split("&")) {
+        if (param.startsWith("page=")) {
+          return Integer.parseInt(param.substring(5));
+        }
+      }
+    }
+    return 1;
+  }
+
+  private String pageJson(int page) {
+    int from = (page - 1) * PAGE_SIZE;
+    int to = Math.min(count, from + PAGE_SIZE);
+    boolean hasNext = to < count;
+
+    StringBuilder json = new StringBuilder();
+    json.append("{\"count\":").append(count).append(",\"next\":")
+        .append(hasNext ? "\"" + baseUrl() + "/planets/?page=" + (page + 1) + "\"" : "null")
+        .append(",\"previous\":null,\"results\":[");
+    for (int n = from; n < to; n++) {
+      if (n > from) {
+        json.append(',');
+      }
+      json.append("{\"name\":\"Planet-").append(n).append("\",\"films\":[");
+      for (int f = 0; f < n % 7; f++) {
+        json.append(f > 0 ? "," : "").append("\"https://swapi.dev/api/films/").append(f + 1)
+            .append("/\"");
+      }
+      json.append("]}");
+    }
+    return json.append("]}").toString();
+  }
+
+  @Override
+  public void close() {
+    server.stop(0);
+  }
+}